@@ -0,0 +1,101 @@
+package com.moleep.toeic_master.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * 작업 종류별 실행기. 설정은 async.executors.{이름}.* 에서 읽는다.
+ * <pre>
+ * max-concurrent   동시 실행 수
+ * queue-capacity   대기열 크기
+ * rejection        caller-runs | drop-oldest | abort
+ * virtual-threads  true면 가상 스레드 + 세마포어
+ * </pre>
+ * 이름 없는 @Async는 default 실행기에서 실행된다.
+ */
+@Component
+@Slf4j
+public class AsyncExecutors implements AsyncConfigurer {
+
+    public static final String DEFAULT = "default";
+    public static final String EMBEDDING = "embedding";
+    public static final String VENUE_EVAL = "venue-eval";
+    public static final String S3_CLEANUP = "s3-cleanup";
+
+    private final BoundedExecutor defaultExecutor;
+    private final BoundedExecutor embedding;
+    private final BoundedExecutor venueEval;
+    private final BoundedExecutor s3Cleanup;
+
+    public AsyncExecutors(Environment environment, MeterRegistry meterRegistry) {
+        this.defaultExecutor = create(environment, meterRegistry, DEFAULT, 4, 100, RejectionPolicy.CALLER_RUNS);
+        this.embedding = create(environment, meterRegistry, EMBEDDING, 4, 16, RejectionPolicy.CALLER_RUNS);
+        this.venueEval = create(environment, meterRegistry, VENUE_EVAL, 2, 50, RejectionPolicy.ABORT);
+        this.s3Cleanup = create(environment, meterRegistry, S3_CLEANUP, 2, 500, RejectionPolicy.CALLER_RUNS);
+    }
+
+    /**
+     * AI 서버 임베딩 배치 전송
+     */
+    public Executor embedding() {
+        return embedding;
+    }
+
+    /**
+     * 학교 평가(LLM) 재생성. 가득 차면 거절하므로 호출자가 다시 예약해야 함
+     */
+    public Executor venueEval() {
+        return venueEval;
+    }
+
+    /**
+     * 커밋 후 S3 객체 삭제
+     */
+    public Executor s3Cleanup() {
+        return s3Cleanup;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return defaultExecutor;
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (e, method, params) -> log.error("Async method {} failed", method.getName(), e);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (BoundedExecutor executor : List.of(defaultExecutor, embedding, venueEval, s3Cleanup)) {
+            executor.shutdown();
+        }
+    }
+
+    private static BoundedExecutor create(Environment environment, MeterRegistry meterRegistry, String name,
+                                          int defaultConcurrency, int defaultQueueCapacity,
+                                          RejectionPolicy defaultRejection) {
+        String prefix = "async.executors." + name + ".";
+        int maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, defaultConcurrency);
+        int queueCapacity = environment.getProperty(prefix + "queue-capacity", Integer.class, defaultQueueCapacity);
+        RejectionPolicy rejection = RejectionPolicy.valueOf(environment
+                .getProperty(prefix + "rejection", defaultRejection.name())
+                .replace('-', '_').toUpperCase(Locale.ROOT));
+        boolean virtualThreads = environment.getProperty(prefix + "virtual-threads", Boolean.class, false);
+
+        log.info("Executor {}: max-concurrent={}, queue-capacity={}, rejection={}, virtual-threads={}",
+                name, maxConcurrent, queueCapacity, rejection, virtualThreads);
+        return virtualThreads
+                ? BoundedExecutor.virtual(name, maxConcurrent, queueCapacity, rejection, meterRegistry)
+                : BoundedExecutor.platform(name, maxConcurrent, queueCapacity, rejection, meterRegistry);
+    }
+}
@@ -0,0 +1,202 @@
+package com.moleep.toeic_master.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 동시 실행 수와 대기열 크기가 제한된 이름 있는 실행기.
+ * 플랫폼 스레드 풀 또는 세마포어로 동시 실행 수를 제한한 가상 스레드로 동작하며,
+ * 두 경우 모두 executor.queued / executor.active / executor(실행 시간) / executor.idle(대기 시간) /
+ * executor.rejected 지표를 name 태그로 남긴다.
+ */
+@Slf4j
+public final class BoundedExecutor implements Executor {
+
+    private final String name;
+    private final RejectionPolicy rejectionPolicy;
+    private final Counter rejected;
+    private final Delegate delegate;
+
+    private interface Delegate extends Executor {
+        void shutdown();
+    }
+
+    private BoundedExecutor(String name, RejectionPolicy rejectionPolicy, MeterRegistry meterRegistry,
+                            Function<BoundedExecutor, Delegate> delegateFactory) {
+        this.name = name;
+        this.rejectionPolicy = rejectionPolicy;
+        this.rejected = Counter.builder("executor.rejected").tag("name", name).register(meterRegistry);
+        this.delegate = delegateFactory.apply(this);
+    }
+
+    /**
+     * threads개의 데몬 플랫폼 스레드와 queueCapacity 크기의 대기열
+     */
+    public static BoundedExecutor platform(String name, int threads, int queueCapacity,
+                                           RejectionPolicy rejectionPolicy, MeterRegistry meterRegistry) {
+        return new BoundedExecutor(name, rejectionPolicy, meterRegistry, self -> {
+            ThreadFactory threadFactory = Thread.ofPlatform().name(name + "-", 1).daemon(true).factory();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), threadFactory, self.rejectionHandler());
+            pool.allowCoreThreadTimeOut(true);
+            ExecutorService monitored = ExecutorServiceMetrics.monitor(meterRegistry, pool, name);
+            return new Delegate() {
+                @Override
+                public void execute(Runnable task) {
+                    monitored.execute(task);
+                }
+
+                @Override
+                public void shutdown() {
+                    pool.shutdown();
+                }
+            };
+        });
+    }
+
+    /**
+     * 작업마다 가상 스레드를 쓰되 동시에 maxConcurrent개까지만 실행한다. 나머지는 queueCapacity까지 대기
+     */
+    public static BoundedExecutor virtual(String name, int maxConcurrent, int queueCapacity,
+                                          RejectionPolicy rejectionPolicy, MeterRegistry meterRegistry) {
+        return new BoundedExecutor(name, rejectionPolicy, meterRegistry,
+                self -> self.new VirtualDelegate(maxConcurrent, queueCapacity, meterRegistry));
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(task);
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private RejectedExecutionHandler rejectionHandler() {
+        return (task, pool) -> {
+            rejected.increment();
+            switch (rejectionPolicy) {
+                case CALLER_RUNS -> {
+                    if (!pool.isShutdown()) {
+                        task.run();
+                    }
+                }
+                case DROP_OLDEST -> {
+                    if (!pool.isShutdown()) {
+                        pool.getQueue().poll();
+                        log.warn("Executor {} queue full, dropped oldest task", name);
+                        pool.execute(task);
+                    }
+                }
+                case ABORT -> throw new RejectedExecutionException("Executor " + name + " queue full");
+            }
+        };
+    }
+
+    /**
+     * 세마포어 허가를 얻은 가상 스레드가 대기열이 빌 때까지 작업을 이어서 실행한다.
+     */
+    private final class VirtualDelegate implements Delegate {
+
+        private final Semaphore permits;
+        private final BlockingDeque<Queued> waiting;
+        private final ThreadFactory threadFactory;
+        private final Timer executionTimer;
+        private final Timer idleTimer;
+        private volatile boolean shutdown;
+
+        private record Queued(Runnable task, long queuedAt) {}
+
+        VirtualDelegate(int maxConcurrent, int queueCapacity, MeterRegistry meterRegistry) {
+            this.permits = new Semaphore(maxConcurrent);
+            this.waiting = new LinkedBlockingDeque<>(queueCapacity);
+            this.threadFactory = Thread.ofVirtual().name(name + "-", 1).factory();
+            this.executionTimer = Timer.builder("executor").tag("name", name).register(meterRegistry);
+            this.idleTimer = Timer.builder("executor.idle").tag("name", name).register(meterRegistry);
+            Gauge.builder("executor.queued", waiting, BlockingDeque::size).tag("name", name).register(meterRegistry);
+            Gauge.builder("executor.active", permits, p -> maxConcurrent - p.availablePermits())
+                    .tag("name", name).register(meterRegistry);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor " + name + " is shut down");
+            }
+            Queued queued = new Queued(task, System.nanoTime());
+            if (permits.tryAcquire()) {
+                threadFactory.newThread(() -> drain(queued)).start();
+                return;
+            }
+            if (!waiting.offerLast(queued)) {
+                rejected.increment();
+                switch (rejectionPolicy) {
+                    case CALLER_RUNS -> {
+                        run(queued);
+                        return;
+                    }
+                    case DROP_OLDEST -> {
+                        waiting.pollFirst();
+                        log.warn("Executor {} queue full, dropped oldest task", name);
+                        if (!waiting.offerLast(queued)) {
+                            throw new RejectedExecutionException("Executor " + name + " queue full");
+                        }
+                    }
+                    case ABORT -> throw new RejectedExecutionException("Executor " + name + " queue full");
+                }
+            }
+            // 대기열에 넣는 사이 허가가 반납됐을 수 있으므로 다시 확인
+            if (permits.tryAcquire()) {
+                threadFactory.newThread(() -> drain(waiting.pollFirst())).start();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            waiting.clear();
+        }
+
+        private void drain(Queued first) {
+            Queued next = first;
+            while (true) {
+                while (next != null && !shutdown) {
+                    run(next);
+                    next = waiting.pollFirst();
+                }
+                permits.release();
+                // 허가를 반납하기 직전에 들어온 작업이 남지 않도록 다시 확인
+                if (shutdown || waiting.isEmpty() || !permits.tryAcquire()) {
+                    return;
+                }
+                next = waiting.pollFirst();
+            }
+        }
+
+        private void run(Queued queued) {
+            idleTimer.record(System.nanoTime() - queued.queuedAt(), TimeUnit.NANOSECONDS);
+            try {
+                executionTimer.record(queued.task());
+            } catch (Throwable e) {
+                log.error("Task failed on executor {}", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.moleep.toeic_master.config;
+
+import com.moleep.toeic_master.service.SchoolEmbeddingCache;
+import com.moleep.toeic_master.service.StudyEmbeddingCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 임베딩 캐시 적재 상태. readiness 그룹에 포함되어 적재 전에는 트래픽을 받지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmbeddingCacheHealthIndicator implements HealthIndicator {
+
+    private final SchoolEmbeddingCache schoolEmbeddingCache;
+    private final StudyEmbeddingCache studyEmbeddingCache;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = schoolEmbeddingCache.isWarmedUp() && studyEmbeddingCache.isWarmedUp()
+                ? Health.up()
+                : Health.outOfService();
+        return builder
+                .withDetail("schools", schoolEmbeddingCache.size())
+                .withDetail("studies", studyEmbeddingCache.size())
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.moleep.toeic_master.config;
+
+import com.moleep.toeic_master.vector.EmbeddingIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EmbeddingIndexConfig {
+
+    @Bean
+    public EmbeddingIndex.Options embeddingIndexOptions(
+            @Value("${recommendation.ann.enabled:true}") boolean enabled,
+            @Value("${recommendation.ann.m:16}") int m,
+            @Value("${recommendation.ann.ef-construction:100}") int efConstruction,
+            @Value("${recommendation.ann.ef-search:64}") int efSearch,
+            @Value("${recommendation.ann.min-size:10000}") int minSize,
+            @Value("${recommendation.quantization.enabled:false}") boolean quantized,
+            @Value("${recommendation.quantization.rerank-size:200}") int rerankSize) {
+        return new EmbeddingIndex.Options(enabled, m, efConstruction, efSearch, minSize, quantized, rerankSize);
+    }
+}
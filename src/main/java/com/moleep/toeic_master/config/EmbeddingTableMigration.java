@@ -0,0 +1,76 @@
+package com.moleep.toeic_master.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * users/studies/schools에 인라인으로 있던 embedding 컬럼 값을 *_embeddings 테이블로 복사한다.
+ * ddl-auto(update)는 새 테이블만 만들고 값을 옮기지 않으므로 기동 시 실행한다.
+ * 옛 컬럼은 지우지 않는다(이전 버전으로 되돌릴 수 있도록). 컬럼 삭제는 배포가 끝난 뒤 별도의 수동 마이그레이션으로 한다.
+ * 복사가 끝난 컬럼에는 주석(COPIED_COMMENT)을 달아 다음 기동부터는 건너뛴다. 그렇지 않으면 새 테이블에서 지운 임베딩이
+ * 옛 컬럼 값으로 다시 살아난다. 옛 컬럼이 없어도 아무것도 하지 않는다.
+ * 여러 인스턴스가 동시에 떠도 advisory lock으로 하나씩 실행되며, 임베딩 캐시 적재(ApplicationReadyEvent)보다 먼저 끝난다.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingTableMigration implements ApplicationRunner {
+
+    // pg_advisory_xact_lock 키 ("EMBT")
+    private static final long LOCK_KEY = 0x454D4254L;
+
+    private static final String COPIED_COMMENT = "copied to side table; drop manually";
+
+    private record Move(String table, String sideTable, String keyColumn) {}
+
+    private static final List<Move> MOVES = List.of(
+            new Move("users", "user_embeddings", "user_id"),
+            new Move("studies", "study_embeddings", "study_id"),
+            new Move("schools", "school_embeddings", "school_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (Move move : MOVES) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> migrate(move));
+        }
+    }
+
+    private void migrate(Move move) {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)::text", String.class, LOCK_KEY);
+        Integer columns = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'embedding'",
+                Integer.class, move.table());
+        if (columns == null || columns == 0) {
+            return;
+        }
+        String comment = jdbcTemplate.queryForObject(
+                "SELECT col_description(to_regclass(quote_ident(table_schema) || '.' || quote_ident(table_name)), " +
+                        "ordinal_position::int) FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'embedding'",
+                String.class, move.table());
+        if (COPIED_COMMENT.equals(comment)) {
+            return;
+        }
+        int moved = jdbcTemplate.update(
+                "INSERT INTO " + move.sideTable() + " (" + move.keyColumn() + ", embedding, updated_at) " +
+                        "SELECT id, embedding, now() FROM " + move.table() + " WHERE embedding IS NOT NULL " +
+                        "ON CONFLICT (" + move.keyColumn() + ") DO NOTHING");
+        jdbcTemplate.execute("COMMENT ON COLUMN " + move.table() + ".embedding IS '" + COPIED_COMMENT + "'");
+        log.info("Copied {} embeddings from {}.embedding to {}", moved, move.table(), move.sideTable());
+    }
+}
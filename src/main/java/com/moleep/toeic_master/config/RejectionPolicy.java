@@ -0,0 +1,13 @@
+package com.moleep.toeic_master.config;
+
+/**
+ * BoundedExecutor의 대기열이 가득 찼을 때의 처리 방식
+ */
+public enum RejectionPolicy {
+    // 제출한 스레드에서 바로 실행 (제출 속도를 늦춤)
+    CALLER_RUNS,
+    // 가장 오래 기다린 작업을 버리고 새 작업을 넣음
+    DROP_OLDEST,
+    // RejectedExecutionException을 던짐. 호출자가 작업을 보관했다가 다시 제출해야 함
+    ABORT
+}
@@ -1,9 +1,7 @@
 package com.moleep.toeic_master.config;
 
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -17,9 +15,4 @@ public class WebConfig implements WebMvcConfigurer {
                 .ignoreAcceptHeader(true)      // Accept 헤더 무시
                 .defaultContentType(MediaType.APPLICATION_JSON);  // 항상 JSON 응답
     }
-
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
 }
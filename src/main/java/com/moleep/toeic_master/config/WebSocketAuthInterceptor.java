@@ -24,9 +24,10 @@ public class WebSocketAuthInterceptor implements HandshakeInterceptor {
         if (request instanceof ServletServerHttpRequest servletRequest) {
             String token = servletRequest.getServletRequest().getParameter("token");
 
-            if (token != null && jwtTokenProvider.validateToken(token)) {
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
-                attributes.put("userId", userId);
+            // 서명 검증과 클레임 파싱을 한 번에
+            JwtTokenProvider.VerifiedToken verified = token != null ? jwtTokenProvider.verify(token) : null;
+            if (verified != null) {
+                attributes.put("userId", verified.principal().getId());
                 return true;
             }
         }
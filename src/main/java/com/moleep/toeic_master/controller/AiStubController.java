@@ -0,0 +1,109 @@
+package com.moleep.toeic_master.controller;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AI 서버 대용 스텁 (ai-stub 프로필 전용).
+ * 단어를 해시해 차원에 누적하는 결정적 임베딩을 반환하므로 같은 단어를 공유하는 텍스트끼리 유사도가 높다.
+ */
+@Hidden
+@Profile("ai-stub")
+@RestController
+@RequestMapping("/stub/ai")
+public class AiStubController {
+
+    private static final int DIMENSION = 768;
+
+    @PostMapping("/embed")
+    public Map<String, Object> embed(@RequestBody Map<String, String> request) {
+        return Map.of("embedding", embed(request.get("text")));
+    }
+
+    /**
+     * Accept에 application/octet-stream이 있으면 바이너리(count, dimension, float32 값)로 응답
+     */
+    @PostMapping("/embed/batch")
+    public ResponseEntity<?> embedBatch(@RequestBody Map<String, List<String>> request,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = "") String accept) {
+        List<List<Float>> embeddings = new ArrayList<>();
+        for (String text : request.getOrDefault("texts", List.of())) {
+            embeddings.add(embed(text));
+        }
+        if (!accept.contains(MediaType.APPLICATION_OCTET_STREAM_VALUE)) {
+            return ResponseEntity.ok(Map.of("embeddings", embeddings));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + embeddings.size() * DIMENSION * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(embeddings.size()).putInt(DIMENSION);
+        for (List<Float> embedding : embeddings) {
+            embedding.forEach(buffer::putFloat);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(buffer.array());
+    }
+
+    @PostMapping("/venue/eval-embed")
+    public Map<String, Object> evaluateVenue(@RequestBody Map<String, List<String>> request) {
+        List<String> reviews = request.getOrDefault("reviews", List.of());
+        return Map.of(
+                "evaluation", "리뷰 " + reviews.size() + "개 기반 스텁 평가입니다.",
+                "embedding", embed(String.join(" ", reviews))
+        );
+    }
+
+    @PostMapping("/venue/combine")
+    public Map<String, Object> combineVenue(@RequestBody Map<String, Object> request) {
+        @SuppressWarnings("unchecked")
+        List<String> evaluations = (List<String>) request.getOrDefault("evaluations", List.of());
+        return Map.of(
+                "evaluation", "부분 평가 " + evaluations.size() + "개를 합친 스텁 평가입니다.",
+                "embedding", embed(String.join(" ", evaluations))
+        );
+    }
+
+    private List<Float> embed(String text) {
+        float[] vector = new float[DIMENSION];
+        if (text != null) {
+            for (String token : text.split("\\s+")) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                int hash = murmurMix(token.getBytes(StandardCharsets.UTF_8));
+                vector[Math.floorMod(hash, DIMENSION)] += (hash & 0x40000000) == 0 ? 1f : -1f;
+            }
+        }
+        List<Float> embedding = new ArrayList<>(DIMENSION);
+        for (float value : vector) {
+            embedding.add(value);
+        }
+        return embedding;
+    }
+
+    private static int murmurMix(byte[] bytes) {
+        int hash = 0x9747b28c;
+        for (byte b : bytes) {
+            hash ^= b;
+            hash *= 0x5bd1e995;
+            hash ^= hash >>> 15;
+        }
+        return hash;
+    }
+}
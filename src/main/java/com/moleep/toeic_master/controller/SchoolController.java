@@ -2,6 +2,7 @@ package com.moleep.toeic_master.controller;
 
 import com.moleep.toeic_master.dto.response.ApiResponse;
 import com.moleep.toeic_master.dto.response.SchoolResponse;
+import com.moleep.toeic_master.exception.CustomException;
 import com.moleep.toeic_master.security.CustomUserDetails;
 import com.moleep.toeic_master.service.SchoolRecommendationService;
 import com.moleep.toeic_master.service.SchoolService;
@@ -9,6 +10,8 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -26,6 +29,10 @@ public class SchoolController {
     private final SchoolService schoolService;
     private final SchoolRecommendationService schoolRecommendationService;
 
+    // 추천 개수 상한 (검색 버퍼가 topK에 비례하므로 요청 값을 그대로 쓰지 않음)
+    @Value("${recommendation.max-top-k:100}")
+    private int maxTopK;
+
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "학교 목록 조회", description = "모든 학교 목록을 조회합니다")
     public ResponseEntity<ApiResponse<List<SchoolResponse>>> getAllSchools() {
@@ -66,6 +73,9 @@ public class SchoolController {
             @AuthenticationPrincipal CustomUserDetails userDetails,
             @Parameter(description = "추천 개수") @RequestParam(defaultValue = "10") int topK) {
 
+        if (topK < 1 || topK > maxTopK) {
+            throw new CustomException("추천 개수는 1 이상 " + maxTopK + " 이하여야 합니다", HttpStatus.BAD_REQUEST);
+        }
         List<SchoolResponse> recommendations = schoolRecommendationService.getRecommendedSchools(
                 userDetails.getId(), topK);
         return ResponseEntity.ok(ApiResponse.success(recommendations));
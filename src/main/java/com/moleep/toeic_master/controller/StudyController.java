@@ -3,6 +3,7 @@ package com.moleep.toeic_master.controller;
 import com.moleep.toeic_master.dto.request.StudyRequest;
 import com.moleep.toeic_master.dto.response.ApiResponse;
 import com.moleep.toeic_master.dto.response.StudyResponse;
+import com.moleep.toeic_master.exception.CustomException;
 import com.moleep.toeic_master.security.CustomUserDetails;
 import com.moleep.toeic_master.service.StudyRecommendationService;
 import com.moleep.toeic_master.service.StudyService;
@@ -13,6 +14,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +34,10 @@ public class StudyController {
     private final StudyService studyService;
     private final StudyRecommendationService studyRecommendationService;
 
+    // 추천 개수 상한 (검색 버퍼가 topK에 비례하므로 요청 값을 그대로 쓰지 않음)
+    @Value("${recommendation.max-top-k:100}")
+    private int maxTopK;
+
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "스터디 목록 조회", description = "검색 및 필터링 조건으로 스터디 목록을 조회합니다")
     public ResponseEntity<ApiResponse<Page<StudyResponse>>> getStudies(
@@ -111,6 +117,9 @@ public class StudyController {
             @Parameter(description = "최대 목표 점수") @RequestParam(required = false) Integer maxScore,
             @Parameter(description = "추천 개수") @RequestParam(defaultValue = "10") int topK) {
 
+        if (topK < 1 || topK > maxTopK) {
+            throw new CustomException("추천 개수는 1 이상 " + maxTopK + " 이하여야 합니다", HttpStatus.BAD_REQUEST);
+        }
         List<StudyResponse> recommendations = studyRecommendationService.getRecommendedStudies(
                 userDetails.getId(), examType, region, minScore, maxScore, topK);
         return ResponseEntity.ok(ApiResponse.success(recommendations));
@@ -19,7 +19,9 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.stream.Collectors;
 
@@ -32,8 +34,10 @@ public class TestController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final StudyRepository studyRepository;
+    private final StudyEmbeddingRepository studyEmbeddingRepository;
     private final StudyMemberRepository studyMemberRepository;
     private final SchoolRepository schoolRepository;
+    private final SchoolEmbeddingRepository schoolEmbeddingRepository;
     private final ReviewRepository reviewRepository;
     private final ReviewImageRepository reviewImageRepository;
     private final EmbeddingService embeddingService;
@@ -236,34 +240,41 @@ public class TestController {
         Random random = new Random();
         int totalCreated = 0;
 
+        List<Study> studies = new ArrayList<>();
         for (User user : dummyUsers) {
             for (int i = 0; i < countPerUser; i++) {
-                Study study = createRandomStudy(user, random);
-
-                // 임베딩 생성
-                if (study.getContent() != null && !study.getContent().isBlank()) {
-                    float[] embedding = embeddingService.getEmbedding(study.getContent());
-                    if (embedding != null) {
-                        study.setEmbedding(embeddingService.floatArrayToBytes(embedding));
-                    }
-                }
+                studies.add(createRandomStudy(user, random));
+            }
+        }
 
-                studyRepository.save(study);
+        // 임베딩 생성 (배치로 묶여 전송됨)
+        List<float[]> embeddings = embeddingService.getEmbeddings(
+                studies.stream().map(Study::getContent).collect(Collectors.toList()));
+
+        for (int i = 0; i < studies.size(); i++) {
+            Study study = studies.get(i);
+            float[] embedding = embeddings.get(i);
+            studyRepository.save(study);
+            if (embedding != null) {
+                studyEmbeddingRepository.save(StudyEmbedding.builder()
+                        .studyId(study.getId())
+                        .embedding(embeddingService.floatArrayToBytes(embedding))
+                        .build());
+            }
 
-                // 캐시 업데이트
-                if (study.getEmbedding() != null) {
-                    studyEmbeddingCache.put(study.getId(), embeddingService.bytesToFloatArray(study.getEmbedding()));
-                }
+            // 캐시 업데이트
+            if (embedding != null) {
+                studyEmbeddingCache.put(study, embedding);
+            }
 
-                StudyMember leader = StudyMember.builder()
-                        .study(study)
-                        .user(user)
-                        .role(MemberRole.LEADER)
-                        .build();
-                studyMemberRepository.save(leader);
+            StudyMember leader = StudyMember.builder()
+                    .study(study)
+                    .user(study.getUser())
+                    .role(MemberRole.LEADER)
+                    .build();
+            studyMemberRepository.save(leader);
 
-                totalCreated++;
-            }
+            totalCreated++;
         }
 
         return ResponseEntity.ok(ApiResponse.success(
@@ -554,6 +565,18 @@ public class TestController {
         ));
     }
 
+    @GetMapping(value = "/embedding-recall", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "임베딩 검색 재현율 측정", description = "HNSW/int8 검색 결과를 float 전수 검색과 비교한 recall@k를 반환합니다")
+    public ResponseEntity<ApiResponse<Map<String, Double>>> measureEmbeddingRecall(
+            @Parameter(description = "샘플 질의 수") @RequestParam(defaultValue = "100") int samples,
+            @Parameter(description = "비교할 상위 개수") @RequestParam(defaultValue = "10") int k) {
+
+        Map<String, Double> recall = new LinkedHashMap<>();
+        recall.put("study", studyEmbeddingCache.sampleRecall(samples, k));
+        recall.put("school", schoolEmbeddingCache.sampleRecall(samples, k));
+        return ResponseEntity.ok(ApiResponse.success(recall));
+    }
+
     private Review createRandomReview(User user, School school, Random random) {
         boolean recommended = random.nextBoolean();
         boolean facilityGood = random.nextBoolean();
@@ -658,7 +681,7 @@ public class TestController {
 
         if (reviewContents.isEmpty()) {
             school.setEvaluation(null);
-            school.setEmbedding(null);
+            schoolEmbeddingRepository.deleteById(school.getId());
             schoolEmbeddingCache.remove(school.getId());
             schoolRepository.save(school);
             return;
@@ -667,7 +690,10 @@ public class TestController {
         EmbeddingService.VenueEvalResult result = embeddingService.getVenueEvaluation(reviewContents);
         if (result != null) {
             school.setEvaluation(result.evaluation());
-            school.setEmbedding(embeddingService.floatArrayToBytes(result.embedding()));
+            schoolEmbeddingRepository.save(SchoolEmbedding.builder()
+                    .schoolId(school.getId())
+                    .embedding(embeddingService.floatArrayToBytes(result.embedding()))
+                    .build());
             schoolEmbeddingCache.put(school.getId(), result.embedding());
             schoolRepository.save(school);
         }
@@ -22,11 +22,18 @@ public class ChatMessageResponse {
     private LocalDateTime createdAt;
 
     public static ChatMessageResponse from(ChatMessage message, String imageUrl) {
+        return from(message, message.getUser().getNickname(), imageUrl);
+    }
+
+    /**
+     * 보낸 사람 닉네임을 따로 받는 버전 (user가 초기화되지 않은 참조일 때)
+     */
+    public static ChatMessageResponse from(ChatMessage message, String senderNickname, String imageUrl) {
         return ChatMessageResponse.builder()
                 .id(message.getId())
                 .studyId(message.getStudy().getId())
                 .senderId(message.getUser().getId())
-                .senderNickname(message.getUser().getNickname())
+                .senderNickname(senderNickname)
                 .content(message.getContent())
                 .imageUrl(imageUrl)
                 .createdAt(message.getCreatedAt())
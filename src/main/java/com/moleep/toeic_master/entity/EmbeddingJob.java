@@ -0,0 +1,58 @@
+package com.moleep.toeic_master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * 임베딩 생성 대기열 (transactional outbox).
+ * 대상 엔티티 변경과 같은 트랜잭션에서 기록되고, EmbeddingJobWorker가 처리 후 삭제한다.
+ */
+@Entity
+@Table(name = "embedding_jobs",
+        indexes = @Index(name = "idx_embedding_jobs_claim", columnList = "status, available_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmbeddingJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, length = 20)
+    private EmbeddingTargetType targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private EmbeddingJobStatus status = EmbeddingJobStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // 이 시각 이후에 가져갈 수 있음. 가져갈 때 임대 시간만큼, 실패 시 재시도 간격만큼 미룸
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.availableAt == null) {
+            this.availableAt = this.createdAt;
+        }
+    }
+}
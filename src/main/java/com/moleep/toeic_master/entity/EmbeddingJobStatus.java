@@ -0,0 +1,6 @@
+package com.moleep.toeic_master.entity;
+
+public enum EmbeddingJobStatus {
+    PENDING,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.moleep.toeic_master.entity;
+
+public enum EmbeddingTargetType {
+    STUDY,  // Study.content
+    USER    // User.tendency
+}
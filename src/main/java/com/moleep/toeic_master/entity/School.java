@@ -38,13 +38,24 @@ public class School {
     @Column(columnDefinition = "TEXT")
     private String evaluation;
 
-    @Column(columnDefinition = "BYTEA")
-    private byte[] embedding;
+    // 임베딩(school_embeddings) 변경 시각(epoch ms). 임베딩 캐시 스냅샷 이후 변경분 재적용 기준
+    @Column(name = "embedding_version")
+    private Long embeddingVersion;
+
+    // 평가(LLM) 임대 만료 시각(epoch ms). SchoolEvaluationScheduler가 SQL로만 쓰므로 엔티티 저장 시에는 건드리지 않음
+    @Column(name = "evaluating_until", insertable = false, updatable = false)
+    private Long evaluatingUntil;
 
     @OneToMany(mappedBy = "school", cascade = CascadeType.ALL)
     @Builder.Default
     private List<Review> reviews = new ArrayList<>();
 
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        this.embeddingVersion = System.currentTimeMillis();
+    }
+
     public void updateAvgRating() {
         if (reviews.isEmpty()) {
             this.avgRating = BigDecimal.ZERO;
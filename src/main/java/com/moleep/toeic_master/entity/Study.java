@@ -51,8 +51,9 @@ public class Study {
     @Builder.Default
     private StudyStatus status = StudyStatus.RECRUITING;
 
-    @Column(columnDefinition = "BYTEA")
-    private byte[] embedding;
+    // 임베딩(study_embeddings)/추천 필터 변경 시각(epoch ms). 임베딩 캐시 스냅샷 이후 변경분 재적용 기준
+    @Column(name = "embedding_version")
+    private Long embeddingVersion;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -60,5 +61,11 @@ public class Study {
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        this.embeddingVersion = System.currentTimeMillis();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.embeddingVersion = System.currentTimeMillis();
     }
 }
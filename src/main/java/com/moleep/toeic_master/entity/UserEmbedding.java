@@ -0,0 +1,34 @@
+package com.moleep.toeic_master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * 사용자 성향 임베딩. users 행을 조회할 때마다 읽히지 않도록 별도 테이블에 user_id를 키로 보관한다.
+ */
+@Entity
+@Table(name = "user_embeddings")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserEmbedding {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(columnDefinition = "BYTEA", nullable = false)
+    private byte[] embedding;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,41 @@
+package com.moleep.toeic_master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * 야간 배치가 미리 계산한 사용자별 추천 목록.
+ * item_ids는 유사도 내림차순 id(long, little-endian)를 이어 붙인 값이고,
+ * embedding_hash가 현재 성향 임베딩과 다르면 계산 이후 성향이 바뀐 것이므로 사용하지 않는다.
+ */
+@Entity
+@Table(name = "user_recommendations",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "type"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRecommendation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecommendationType type;
+
+    @Column(name = "item_ids", columnDefinition = "BYTEA", nullable = false)
+    private byte[] itemIds;
+
+    @Column(name = "embedding_hash", nullable = false)
+    private Integer embeddingHash;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
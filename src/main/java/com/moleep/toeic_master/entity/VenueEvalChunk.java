@@ -0,0 +1,55 @@
+package com.moleep.toeic_master.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * 학교 리뷰 청크별 부분 평가 결과. 청크는 리뷰 id 범위(first~last)로 식별하며,
+ * 범위 안 리뷰 내용의 해시가 같으면 AI 서버를 다시 호출하지 않는다.
+ */
+@Entity
+@Table(name = "venue_eval_chunks",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"school_id", "first_review_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VenueEvalChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "school_id", nullable = false)
+    private Long schoolId;
+
+    // 청크에 속하는 리뷰 id 범위 (양 끝 포함). 범위 도입 전에 저장된 청크는 null이며 다음 평가 때 지워진다
+    @Column(name = "first_review_id")
+    private Long firstReviewId;
+
+    @Column(name = "last_review_id")
+    private Long lastReviewId;
+
+    // 청크 리뷰 텍스트들의 SHA-256 (hex)
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "review_count", nullable = false)
+    private Integer reviewCount;
+
+    @Column(columnDefinition = "TEXT")
+    private String evaluation;
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] embedding;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
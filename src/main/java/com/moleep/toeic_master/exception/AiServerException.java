@@ -0,0 +1,28 @@
+package com.moleep.toeic_master.exception;
+
+import lombok.Getter;
+
+/**
+ * AI 서버 호출 실패 (연결/타임아웃/오류 응답)
+ */
+@Getter
+public class AiServerException extends RuntimeException {
+
+    // 오류 응답의 HTTP 상태 코드. 응답을 받지 못한 실패면 0
+    private final int statusCode;
+
+    public AiServerException(String message) {
+        super(message);
+        this.statusCode = 0;
+    }
+
+    public AiServerException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public AiServerException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = cause instanceof AiServerException aiServerException ? aiServerException.statusCode : 0;
+    }
+}
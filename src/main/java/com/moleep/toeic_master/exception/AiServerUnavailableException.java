@@ -0,0 +1,11 @@
+package com.moleep.toeic_master.exception;
+
+/**
+ * 서킷 브레이커가 열려 있거나 동시 호출 한도를 넘어 AI 서버를 호출하지 않고 바로 실패한 경우
+ */
+public class AiServerUnavailableException extends AiServerException {
+
+    public AiServerUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.moleep.toeic_master.repository;
+
+import com.moleep.toeic_master.entity.EmbeddingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmbeddingJobRepository extends JpaRepository<EmbeddingJob, Long> {
+
+    // 다른 워커가 잠근 행은 건너뛰므로 여러 인스턴스가 같은 작업을 가져가지 않음
+    @Query(value = "SELECT * FROM embedding_jobs " +
+            "WHERE status = 'PENDING' AND available_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmbeddingJob> findClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
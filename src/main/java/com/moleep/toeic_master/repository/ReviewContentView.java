@@ -0,0 +1,11 @@
+package com.moleep.toeic_master.repository;
+
+/**
+ * 학교 평가에 필요한 리뷰 id와 본문만 읽는 프로젝션
+ */
+public interface ReviewContentView {
+
+    Long getId();
+
+    String getContent();
+}
@@ -4,10 +4,17 @@ import com.moleep.toeic_master.entity.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     Page<Review> findBySchoolId(Long schoolId, Pageable pageable);
     boolean existsByUserIdAndSchoolId(Long userId, Long schoolId);
+
+    @Query("SELECT r.id AS id, r.content AS content FROM Review r WHERE r.school.id = :schoolId ORDER BY r.id")
+    List<ReviewContentView> findContentViewsBySchoolId(@Param("schoolId") Long schoolId);
 }
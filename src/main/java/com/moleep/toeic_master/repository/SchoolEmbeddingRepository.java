@@ -0,0 +1,9 @@
+package com.moleep.toeic_master.repository;
+
+import com.moleep.toeic_master.entity.SchoolEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SchoolEmbeddingRepository extends JpaRepository<SchoolEmbedding, Long> {
+}
@@ -0,0 +1,11 @@
+package com.moleep.toeic_master.repository;
+
+/**
+ * 임베딩 캐시 적재용 프로젝션
+ */
+public interface SchoolEmbeddingView {
+
+    Long getId();
+
+    byte[] getEmbedding();
+}
@@ -1,12 +1,17 @@
 package com.moleep.toeic_master.repository;
 
 import com.moleep.toeic_master.entity.School;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SchoolRepository extends JpaRepository<School, Long> {
@@ -22,4 +27,27 @@ public interface SchoolRepository extends JpaRepository<School, Long> {
     );
 
     List<School> findByNameContaining(String name);
+
+    @Query("SELECT e.schoolId FROM SchoolEmbedding e")
+    List<Long> findIdsWithEmbedding();
+
+    @Query("SELECT e.schoolId AS id, e.embedding AS embedding FROM SchoolEmbedding e")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<SchoolEmbeddingView> streamEmbeddingViews();
+
+    @Query("SELECT e.schoolId AS id, e.embedding AS embedding FROM SchoolEmbedding e WHERE e.schoolId = :id")
+    Optional<SchoolEmbeddingView> findEmbeddingViewById(@Param("id") Long id);
+
+    // embedding_version 컬럼 추가 전부터 있던 행(NULL)은 0으로 본다. 전체 적재 때 이미 읽었으므로 매번 다시 읽지 않음
+    // 평가가 지워진 학교도 캐시에서 빼야 하므로 embedding이 null인 행도 반환
+    @Query("SELECT s.id AS id, e.embedding AS embedding " +
+            "FROM School s LEFT JOIN SchoolEmbedding e ON e.schoolId = s.id WHERE " +
+            "COALESCE(s.embeddingVersion, 0) > :since")
+    List<SchoolEmbeddingView> findWithEmbeddingChangedSince(@Param("since") long since);
+
+    @Query("SELECT e.schoolId FROM SchoolEmbedding e")
+    List<Long> findIdsWithEmbedding();
 }
@@ -0,0 +1,9 @@
+package com.moleep.toeic_master.repository;
+
+import com.moleep.toeic_master.entity.StudyEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StudyEmbeddingRepository extends JpaRepository<StudyEmbedding, Long> {
+}
@@ -0,0 +1,9 @@
+package com.moleep.toeic_master.repository;
+
+/**
+ * 임베딩 캐시 적재용 프로젝션 (필터 컬럼 + 임베딩)
+ */
+public interface StudyEmbeddingView extends StudyFilterView {
+
+    byte[] getEmbedding();
+}
@@ -0,0 +1,19 @@
+package com.moleep.toeic_master.repository;
+
+import com.moleep.toeic_master.entity.StudyStatus;
+
+/**
+ * 스터디 추천 필터에 필요한 컬럼만 읽는 프로젝션
+ */
+public interface StudyFilterView {
+
+    Long getId();
+
+    String getExamType();
+
+    String getRegion();
+
+    StudyStatus getStatus();
+
+    Integer getTargetScore();
+}
@@ -2,33 +2,23 @@ package com.moleep.toeic_master.repository;
 
 import com.moleep.toeic_master.entity.Study;
 import com.moleep.toeic_master.entity.StudyStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface StudyRepository extends JpaRepository<Study, Long> {
 
-    @Query("SELECT s.id FROM Study s WHERE " +
-            "(:examType IS NULL OR s.examType = :examType) AND " +
-            "(:region IS NULL OR s.region = :region) AND " +
-            "s.status = :status AND " +
-            "(:minScore IS NULL OR s.targetScore >= :minScore) AND " +
-            "(:maxScore IS NULL OR s.targetScore <= :maxScore) AND " +
-            "s.embedding IS NOT NULL")
-    List<Long> findStudyIdsWithFilters(
-            @Param("examType") String examType,
-            @Param("region") String region,
-            @Param("status") StudyStatus status,
-            @Param("minScore") Integer minScore,
-            @Param("maxScore") Integer maxScore
-    );
-
     @Query("SELECT s FROM Study s WHERE " +
             "(:keyword IS NULL OR s.title LIKE %:keyword% OR s.region LIKE %:keyword%) AND " +
             "(:examType IS NULL OR s.examType = :examType) AND " +
@@ -46,4 +36,34 @@ public interface StudyRepository extends JpaRepository<Study, Long> {
             @Param("maxScore") Integer maxScore,
             Pageable pageable
     );
+
+    @Query("SELECT s.id AS id, s.examType AS examType, s.region AS region, " +
+            "s.status AS status, s.targetScore AS targetScore " +
+            "FROM Study s JOIN StudyEmbedding e ON e.studyId = s.id")
+    List<StudyFilterView> findFilterViewsWithEmbedding();
+
+    @Query("SELECT s.id AS id, s.examType AS examType, s.region AS region, " +
+            "s.status AS status, s.targetScore AS targetScore, e.embedding AS embedding " +
+            "FROM Study s JOIN StudyEmbedding e ON e.studyId = s.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<StudyEmbeddingView> streamEmbeddingViews();
+
+    @Query("SELECT s.id AS id, s.examType AS examType, s.region AS region, " +
+            "s.status AS status, s.targetScore AS targetScore, e.embedding AS embedding " +
+            "FROM Study s JOIN StudyEmbedding e ON e.studyId = s.id WHERE s.id = :id")
+    Optional<StudyEmbeddingView> findEmbeddingViewById(@Param("id") Long id);
+
+    // embedding_version 컬럼 추가 전부터 있던 행(NULL)은 0으로 본다. 전체 적재 때 이미 읽었으므로 매번 다시 읽지 않음
+    // 임베딩이 지워진 스터디도 캐시에서 빼야 하므로 embedding이 null인 행도 반환
+    @Query("SELECT s.id AS id, s.examType AS examType, s.region AS region, " +
+            "s.status AS status, s.targetScore AS targetScore, e.embedding AS embedding " +
+            "FROM Study s LEFT JOIN StudyEmbedding e ON e.studyId = s.id WHERE " +
+            "COALESCE(s.embeddingVersion, 0) > :since")
+    List<StudyEmbeddingView> findWithEmbeddingChangedSince(@Param("since") long since);
+
+    @Query("SELECT e.studyId FROM StudyEmbedding e")
+    List<Long> findIdsWithEmbedding();
 }
@@ -0,0 +1,15 @@
+package com.moleep.toeic_master.repository;
+
+/**
+ * 인증(UserDetails)에 필요한 컬럼만 읽는 프로젝션. 성향/소개 같은 긴 텍스트는 읽지 않는다.
+ */
+public interface UserAuthView {
+
+    Long getId();
+
+    String getEmail();
+
+    String getPassword();
+
+    String getNickname();
+}
@@ -0,0 +1,23 @@
+package com.moleep.toeic_master.repository;
+
+import com.moleep.toeic_master.entity.UserEmbedding;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserEmbeddingRepository extends JpaRepository<UserEmbedding, Long> {
+
+    @Query("SELECT e.userId AS id, e.embedding AS embedding FROM UserEmbedding e WHERE e.userId = :id")
+    Optional<UserEmbeddingView> findEmbeddingViewById(@Param("id") Long id);
+
+    // 임베딩이 있는 사용자를 id 순으로 afterId 다음부터 (야간 추천 배치의 키셋 페이지)
+    @Query("SELECT e.userId AS id, e.embedding AS embedding FROM UserEmbedding e " +
+            "WHERE e.userId > :afterId ORDER BY e.userId")
+    List<UserEmbeddingView> findEmbeddingViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package com.moleep.toeic_master.repository;
+
+/**
+ * 추천 요청 시 사용자 성향 임베딩만 읽기 위한 프로젝션
+ */
+public interface UserEmbeddingView {
+
+    Long getId();
+
+    byte[] getEmbedding();
+}
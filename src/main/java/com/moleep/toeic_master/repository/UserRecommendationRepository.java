@@ -0,0 +1,24 @@
+package com.moleep.toeic_master.repository;
+
+import com.moleep.toeic_master.entity.RecommendationType;
+import com.moleep.toeic_master.entity.UserRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface UserRecommendationRepository extends JpaRepository<UserRecommendation, Long> {
+
+    Optional<UserRecommendation> findByUserIdAndType(Long userId, RecommendationType type);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserRecommendation r WHERE r.computedAt < :before")
+    int deleteComputedBefore(@Param("before") LocalDateTime before);
+}
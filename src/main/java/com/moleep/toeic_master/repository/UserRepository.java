@@ -2,6 +2,8 @@ package com.moleep.toeic_master.repository;
 
 import com.moleep.toeic_master.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -10,4 +12,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     boolean existsByNickname(String nickname);
+
+    @Query("SELECT u.id AS id, u.email AS email, u.password AS password, u.nickname AS nickname " +
+            "FROM User u WHERE u.email = :email")
+    Optional<UserAuthView> findAuthViewByEmail(@Param("email") String email);
+
+    @Query("SELECT u.id AS id, u.email AS email, u.password AS password, u.nickname AS nickname " +
+            "FROM User u WHERE u.id = :id")
+    Optional<UserAuthView> findAuthViewById(@Param("id") Long id);
 }
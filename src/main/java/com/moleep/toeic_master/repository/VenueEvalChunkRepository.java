@@ -0,0 +1,27 @@
+package com.moleep.toeic_master.repository;
+
+import com.moleep.toeic_master.entity.VenueEvalChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface VenueEvalChunkRepository extends JpaRepository<VenueEvalChunk, Long> {
+
+    List<VenueEvalChunk> findBySchoolIdOrderByFirstReviewId(Long schoolId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM VenueEvalChunk c WHERE c.schoolId = :schoolId AND c.id NOT IN :ids")
+    int deleteStale(@Param("schoolId") Long schoolId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    int deleteBySchoolId(Long schoolId);
+}
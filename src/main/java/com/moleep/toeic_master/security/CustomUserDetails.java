@@ -1,6 +1,6 @@
 package com.moleep.toeic_master.security;
 
-import com.moleep.toeic_master.entity.User;
+import com.moleep.toeic_master.repository.UserAuthView;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,13 +17,23 @@ public class CustomUserDetails implements UserDetails {
     private final String password;
     private final String nickname;
 
-    public CustomUserDetails(User user) {
+    public CustomUserDetails(UserAuthView user) {
         this.id = user.getId();
         this.email = user.getEmail();
         this.password = user.getPassword();
         this.nickname = user.getNickname();
     }
 
+    /**
+     * 검증된 JWT 클레임으로 만든 인증 주체. 비밀번호는 담지 않는다.
+     */
+    public CustomUserDetails(Long id, String email, String nickname) {
+        this.id = id;
+        this.email = email;
+        this.password = null;
+        this.nickname = nickname;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
@@ -14,12 +14,20 @@ import java.util.Date;
 public class JwtTokenProvider {
 
     private final SecretKey secretKey;
+    private final JwtParser parser;
     private final long expiration;
 
+    /**
+     * 서명과 만료가 확인된 토큰. expiresAt은 토큰 만료 시각(epoch ms)
+     */
+    public record VerifiedToken(CustomUserDetails principal, long expiresAt) {}
+
     public JwtTokenProvider(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration}") long expiration) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        // 파서는 불변이고 스레드 안전하므로 한 번만 만들어 재사용
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
         this.expiration = expiration;
     }
 
@@ -52,33 +60,42 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * 서명/만료를 한 번만 검증하고 토큰에 담긴 클레임(userId, email, nickname)으로 인증 주체를 만든다.
+     * DB를 조회하지 않으므로 닉네임은 토큰 발급 시점의 값이다. 유효하지 않으면 null
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            return null;
+        }
+        Long userId = claims.get("userId", Long.class);
+        if (userId == null || claims.getExpiration() == null) {
+            return null;
+        }
+        CustomUserDetails principal = new CustomUserDetails(userId, claims.getSubject(), claims.get("nickname", String.class));
+        return new VerifiedToken(principal, claims.getExpiration().getTime());
+    }
+
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        Claims claims = parseClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("userId", Long.class);
+        Claims claims = parseClaims(token);
+        return claims != null ? claims.get("userId", Long.class) : null;
     }
 
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    private Claims parseClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
         }
     }
 }
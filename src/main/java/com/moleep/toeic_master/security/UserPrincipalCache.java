@@ -0,0 +1,142 @@
+package com.moleep.toeic_master.security;
+
+import com.moleep.toeic_master.exception.CustomException;
+import com.moleep.toeic_master.repository.UserAuthView;
+import com.moleep.toeic_master.repository.UserRepository;
+import com.moleep.toeic_master.service.UserProfileChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 사용자 id/이메일로 인증 주체(id, email, 비밀번호 해시, 닉네임)를 보관하는 LRU 캐시.
+ * 로그인과 닉네임/존재 확인만 필요한 경로가 users 행을 매번 읽지 않도록 한다.
+ * 이 인스턴스의 프로필 변경은 커밋 후 바로 비우고, 다른 인스턴스의 변경은 EmbeddingChangeFeed의 USER_PRINCIPAL 알림으로 비운다.
+ * 알림을 놓쳐도 ttl-ms가 지나면 다시 읽어 반영한다.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlMs;
+    private final Map<Long, Entry> entries;
+    private final Map<String, Long> idsByEmail = new HashMap<>();
+
+    // 로드 중에 무효화가 일어났으면 로드 결과를 넣지 않기 위한 카운터
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private record Entry(CustomUserDetails principal, long loadedAt) {}
+
+    public UserPrincipalCache(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${auth.principal-cache.max-size:10000}") int maxSize,
+                              @Value("${auth.principal-cache.ttl-ms:300000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= UserPrincipalCache.this.maxSize) {
+                    return false;
+                }
+                idsByEmail.remove(eldest.getValue().principal().getEmail());
+                return true;
+            }
+        };
+        this.hits = Counter.builder("user.principal.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("user.principal.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("user.principal.cache.size", this, UserPrincipalCache::size).register(meterRegistry);
+    }
+
+    /**
+     * 사용자의 인증 주체. 사용자가 없으면 CustomException(404)
+     */
+    public CustomUserDetails get(Long userId) {
+        CustomUserDetails cached;
+        synchronized (entries) {
+            cached = fresh(entries.get(userId));
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        return load(() -> userRepository.findAuthViewById(userId))
+                .orElseThrow(() -> new CustomException("사용자를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * 이메일로 찾은 인증 주체 (로그인용)
+     */
+    public Optional<CustomUserDetails> findByEmail(String email) {
+        CustomUserDetails cached;
+        synchronized (entries) {
+            Long userId = idsByEmail.get(email);
+            cached = userId != null ? fresh(entries.get(userId)) : null;
+        }
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        return load(() -> userRepository.findAuthViewByEmail(email));
+    }
+
+    public void invalidate(Long userId) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            Entry removed = entries.remove(userId);
+            if (removed != null) {
+                idsByEmail.remove(removed.principal().getEmail());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private CustomUserDetails fresh(Entry entry) {
+        return entry != null && System.currentTimeMillis() - entry.loadedAt() < ttlMs ? entry.principal() : null;
+    }
+
+    private Optional<CustomUserDetails> load(Supplier<Optional<UserAuthView>> loader) {
+        misses.increment();
+        long invalidationsBefore = invalidations.get();
+        Optional<CustomUserDetails> loaded = loader.get().map(CustomUserDetails::new);
+        loaded.ifPresent(principal -> {
+            synchronized (entries) {
+                if (invalidations.get() != invalidationsBefore) {
+                    return;
+                }
+                Entry previous = entries.put(principal.getId(), new Entry(principal, System.currentTimeMillis()));
+                if (previous != null) {
+                    idsByEmail.remove(previous.principal().getEmail());
+                }
+                idsByEmail.put(principal.getEmail(), principal.getId());
+            }
+        });
+        return loaded;
+    }
+}
@@ -0,0 +1,101 @@
+package com.moleep.toeic_master.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 검증이 끝난 JWT의 인증 주체를 잠시 보관하는 LRU 캐시.
+ * 같은 토큰이 반복해서 들어오면 서명 검증(HMAC)과 클레임 파싱을 건너뛴다.
+ * 키는 토큰 원문이 아닌 SHA-256 앞 128비트이며, 유효하지 않은 토큰은 넣지 않는다.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<Key, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private record Key(long high, long low) {}
+
+    // expiresAt = min(넣은 시각 + ttl, 토큰 만료 시각)
+    private record Entry(CustomUserDetails principal, long expiresAt) {}
+
+    public VerifiedTokenCache(JwtTokenProvider jwtTokenProvider,
+                              @Value("${jwt.verified-cache.max-size:10000}") int maxSize,
+                              @Value("${jwt.verified-cache.ttl-ms:60000}") long ttlMillis,
+                              MeterRegistry meterRegistry) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > VerifiedTokenCache.this.maxSize;
+            }
+        };
+        this.hits = Counter.builder("jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("jwt.cache.size", this, VerifiedTokenCache::size).register(meterRegistry);
+    }
+
+    /**
+     * 토큰의 인증 주체. 서명이 틀렸거나 만료됐으면 null
+     */
+    public CustomUserDetails get(String token) {
+        Key key = keyOf(token);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    hits.increment();
+                    return entry.principal();
+                }
+                entries.remove(key);
+            }
+        }
+
+        misses.increment();
+        JwtTokenProvider.VerifiedToken verified = jwtTokenProvider.verify(token);
+        if (verified == null) {
+            return null;
+        }
+        if (maxSize > 0 && ttlMillis > 0) {
+            Entry entry = new Entry(verified.principal(), Math.min(now + ttlMillis, verified.expiresAt()));
+            synchronized (entries) {
+                entries.put(key, entry);
+            }
+        }
+        return verified.principal();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static Key keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new Key(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.exception.AiServerException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * AI 서버 응답을 JsonParser로 스트리밍하며 임베딩 배열을 바로 float[]에 채운다 (Double 박싱 없음).
+ * /embed/batch는 application/octet-stream 응답도 읽는다.
+ * <pre>
+ * int   count         little-endian
+ * int   dimension
+ * float values[count * dimension]
+ * </pre>
+ */
+@Component
+@RequiredArgsConstructor
+public class AiResponseParser {
+
+    public static final String OCTET_STREAM = "application/octet-stream";
+
+    private final ObjectMapper objectMapper;
+
+    // 배열 크기를 미리 잡는 데만 사용 (다르면 맞춰 줄임/늘림)
+    @Value("${ai.embedding.dimension:768}")
+    private int expectedDimension;
+
+    /**
+     * {"embeddings": [[...], ...]} 또는 바이너리 배치 응답
+     */
+    public List<float[]> readEmbeddings(String contentType, InputStream body) throws IOException {
+        if (contentType.startsWith(OCTET_STREAM)) {
+            return readBinaryEmbeddings(body);
+        }
+        List<float[]> embeddings = null;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("embeddings".equals(name) && value == JsonToken.START_ARRAY) {
+                    embeddings = new ArrayList<>();
+                    JsonToken element;
+                    while ((element = parser.nextToken()) == JsonToken.START_ARRAY) {
+                        embeddings.add(readFloatArray(parser));
+                    }
+                    expect(element, JsonToken.END_ARRAY);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (embeddings == null) {
+            throw new AiServerException("AI server response has no embeddings");
+        }
+        return embeddings;
+    }
+
+    /**
+     * 단건 /embed 응답 {"embedding": [...]}
+     */
+    public float[] readEmbedding(String contentType, InputStream body) {
+        float[] embedding = null;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("embedding".equals(name) && value == JsonToken.START_ARRAY) {
+                    embedding = readFloatArray(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (embedding == null) {
+            throw new AiServerException("AI server response has no embedding");
+        }
+        return embedding;
+    }
+
+    /**
+     * {"evaluation": "...", "embedding": [...]}
+     */
+    public EmbeddingService.VenueEvalResult readVenueEval(String contentType, InputStream body) {
+        String evaluation = null;
+        float[] embedding = null;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("evaluation".equals(name) && value == JsonToken.VALUE_STRING) {
+                    evaluation = parser.getValueAsString();
+                } else if ("embedding".equals(name) && value == JsonToken.START_ARRAY) {
+                    embedding = readFloatArray(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (evaluation == null || embedding == null) {
+            throw new AiServerException("AI server response has no evaluation or embedding");
+        }
+        return new EmbeddingService.VenueEvalResult(evaluation, embedding);
+    }
+
+    /**
+     * 현재 토큰이 START_ARRAY인 숫자 배열을 읽는다
+     */
+    private float[] readFloatArray(JsonParser parser) {
+        float[] values = new float[expectedDimension];
+        int size = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null || !token.isNumeric()) {
+                throw new AiServerException("Unexpected " + token + " in embedding array");
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, size * 2));
+            }
+            values[size++] = parser.getFloatValue();
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    private static List<float[]> readBinaryEmbeddings(InputStream body) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(body.readNBytes(2 * Integer.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+        if (header.remaining() < 2 * Integer.BYTES) {
+            throw new AiServerException("Truncated binary embedding response");
+        }
+        int count = header.getInt();
+        int dimension = header.getInt();
+        long payloadBytes = (long) count * dimension * Float.BYTES;
+        if (count < 0 || dimension < 0 || payloadBytes > Integer.MAX_VALUE) {
+            throw new AiServerException("Invalid binary embedding header " + count + "x" + dimension);
+        }
+        byte[] payload = body.readNBytes((int) payloadBytes);
+        if (payload.length != payloadBytes) {
+            throw new AiServerException("Truncated binary embedding response");
+        }
+        FloatBuffer values = ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        List<float[]> embeddings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float[] embedding = new float[dimension];
+            values.get(embedding);
+            embeddings.add(embedding);
+        }
+        return embeddings;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new AiServerException("Expected " + expected + " but got " + actual + " in AI server response");
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.exception.AiServerException;
+import com.moleep.toeic_master.exception.AiServerUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AI 서버 HTTP 클라이언트. 하나의 HttpClient로 연결을 재사용(keep-alive)하고,
+ * 엔드포인트마다 응답 타임아웃을 따로 둔다. 응답은 문자열로 모으지 않고 스트림에서 바로 읽는다(AiResponseParser).
+ * /embed/batch는 hedge.enabled면 hedge.delay-ms 안에 응답이 없을 때 같은 요청을 한 번 더 보내 먼저 온 응답을 쓴다.
+ * 엔드포인트마다 서킷 브레이커와 동시 호출 한도(bulkhead)를 두어, 서버가 느려지면 기다리지 않고 바로 실패한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiServerClient {
+
+    public enum Endpoint {
+        EMBED("/embed"),
+        EMBED_BATCH("/embed/batch"),
+        VENUE_EVAL("/venue/eval-embed"),
+        VENUE_COMBINE("/venue/combine");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.server.url:http://172.10.5.41}")
+    private String aiServerUrl;
+
+    @Value("${ai.http.version:HTTP_1_1}")
+    private HttpClient.Version version;
+
+    @Value("${ai.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${ai.http.embed-timeout-ms:10000}")
+    private long embedTimeoutMs;
+
+    @Value("${ai.http.venue-eval-timeout-ms:120000}")
+    private long venueEvalTimeoutMs;
+
+    @Value("${ai.http.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${ai.http.hedge.delay-ms:300}")
+    private long hedgeDelayMs;
+
+    // /embed/batch 응답을 application/octet-stream(float32 배열)으로도 받음
+    @Value("${ai.http.binary-embeddings:false}")
+    private boolean binaryEmbeddings;
+
+    @Value("${ai.http.circuit-breaker.window-size:50}")
+    private int breakerWindowSize;
+
+    @Value("${ai.http.circuit-breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${ai.http.circuit-breaker.failure-rate-threshold:50}")
+    private int breakerFailureRateThreshold;
+
+    @Value("${ai.http.circuit-breaker.open-duration-ms:30000}")
+    private long breakerOpenDurationMs;
+
+    @Value("${ai.http.circuit-breaker.half-open-probes:3}")
+    private int breakerHalfOpenProbes;
+
+    @Value("${ai.http.bulkhead.embed-max-concurrent:8}")
+    private int embedMaxConcurrent;
+
+    @Value("${ai.http.bulkhead.venue-eval-max-concurrent:2}")
+    private int venueEvalMaxConcurrent;
+
+    @Value("${ai.http.bulkhead.max-wait-ms:0}")
+    private long bulkheadMaxWaitMs;
+
+    private HttpClient httpClient;
+    private Counter hedgesSent;
+    private Counter hedgesWon;
+    private final Map<Endpoint, Guard> guards = new EnumMap<>(Endpoint.class);
+
+    /**
+     * 엔드포인트별 서킷 브레이커와 동시 호출 한도
+     */
+    private record Guard(CircuitBreaker breaker, Semaphore bulkhead,
+                         Counter rejectedByBreaker, Counter rejectedByBulkhead) {}
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        hedgesSent = Counter.builder("ai.client.hedges").tag("result", "sent").register(meterRegistry);
+        hedgesWon = Counter.builder("ai.client.hedges").tag("result", "won").register(meterRegistry);
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            String tag = endpoint.name().toLowerCase(Locale.ROOT);
+            CircuitBreaker breaker = new CircuitBreaker(breakerWindowSize, breakerMinimumCalls,
+                    breakerFailureRateThreshold, breakerOpenDurationMs, breakerHalfOpenProbes);
+            int maxConcurrent = switch (endpoint) {
+                case EMBED, EMBED_BATCH -> embedMaxConcurrent;
+                case VENUE_EVAL, VENUE_COMBINE -> venueEvalMaxConcurrent;
+            };
+            // 0 = CLOSED, 1 = OPEN, 2 = HALF_OPEN
+            Gauge.builder("ai.client.circuit.state", breaker, b -> b.state().ordinal())
+                    .tag("endpoint", tag).register(meterRegistry);
+            guards.put(endpoint, new Guard(breaker, new Semaphore(maxConcurrent),
+                    Counter.builder("ai.client.rejected").tag("endpoint", tag).tag("reason", "circuit-open")
+                            .register(meterRegistry),
+                    Counter.builder("ai.client.rejected").tag("endpoint", tag).tag("reason", "bulkhead-full")
+                            .register(meterRegistry)));
+        }
+    }
+
+    /**
+     * 지금 호출하면 서킷 브레이커에 거절되지 않을지. 미룰 수 있는 작업은 false일 때 호출하지 않고 남겨 둔다.
+     */
+    public boolean isAvailable(Endpoint endpoint) {
+        return guards.get(endpoint).breaker().isCallPermitted();
+    }
+
+    /**
+     * 응답 본문을 스트림째 읽어 결과로 바꾼다. contentType은 응답의 Content-Type (없으면 빈 문자열)
+     */
+    @FunctionalInterface
+    public interface ResponseReader<T> {
+        T read(String contentType, InputStream body) throws IOException;
+    }
+
+    /**
+     * body를 JSON으로 보내고 응답을 reader로 읽는다. 실패 시 AiServerException,
+     * 서킷이 열려 있거나 동시 호출 한도를 넘으면 호출하지 않고 AiServerUnavailableException
+     */
+    public <T> T post(Endpoint endpoint, Object body, ResponseReader<T> reader) {
+        Guard guard = guards.get(endpoint);
+        boolean acquired;
+        try {
+            acquired = guard.bulkhead().tryAcquire(bulkheadMaxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            guard.rejectedByBulkhead().increment();
+            throw new AiServerUnavailableException("Too many concurrent calls to " + endpoint.path);
+        }
+        long permit = guard.breaker().tryAcquire();
+        if (permit == CircuitBreaker.REJECTED) {
+            guard.bulkhead().release();
+            guard.rejectedByBreaker().increment();
+            throw new AiServerUnavailableException("Circuit open for " + endpoint.path);
+        }
+        try {
+            T response = call(endpoint, body, reader);
+            guard.breaker().onSuccess(permit);
+            return response;
+        } catch (RuntimeException e) {
+            guard.breaker().onFailure(permit);
+            throw e;
+        } finally {
+            guard.bulkhead().release();
+        }
+    }
+
+    private <T> T call(Endpoint endpoint, Object body, ResponseReader<T> reader) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(aiServerUrl + endpoint.path))
+                .timeout(timeoutOf(endpoint))
+                .header("Content-Type", "application/json")
+                .header("Accept", endpoint == Endpoint.EMBED_BATCH && binaryEmbeddings
+                        ? AiResponseParser.OCTET_STREAM + ", application/json;q=0.9"
+                        : "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+
+        boolean hedged = endpoint == Endpoint.EMBED_BATCH && hedgeEnabled;
+        CompletableFuture<T> response = hedged ? sendHedged(request, reader) : send(request, reader);
+        // 요청 타임아웃은 응답 헤더까지만 적용되므로 본문 읽기까지 포함해 한 번 더 제한 (헤지는 지연만큼 더 기다림)
+        long waitMs = timeoutOf(endpoint).toMillis() + (hedged ? hedgeDelayMs : 0);
+        try {
+            return response.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.cancel(true);
+            throw new AiServerException("Interrupted while calling " + endpoint.path, e);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw new AiServerException("Timed out after " + waitMs + " ms calling " + endpoint.path, e);
+        } catch (ExecutionException e) {
+            throw new AiServerException("Failed to call " + endpoint.path, e.getCause());
+        }
+    }
+
+    private Duration timeoutOf(Endpoint endpoint) {
+        return Duration.ofMillis(switch (endpoint) {
+            case EMBED, EMBED_BATCH -> embedTimeoutMs;
+            case VENUE_EVAL, VENUE_COMBINE -> venueEvalTimeoutMs;
+        });
+    }
+
+    /**
+     * 반환한 future를 취소하면 진행 중인 HTTP 요청도 취소한다
+     */
+    private <T> CompletableFuture<T> send(HttpRequest request, ResponseReader<T> reader) {
+        CompletableFuture<HttpResponse<InputStream>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<T> result = exchange.thenApply(response -> read(response, reader));
+        // thenApply 단계를 취소해도 sendAsync future에는 전달되지 않으므로 직접 취소
+        result.whenComplete((value, error) -> {
+            if (error instanceof CancellationException) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 먼저 성공한 응답을 쓰고 나머지 요청은 취소한다. 모두 실패하면 마지막 오류로 실패
+     */
+    private <T> CompletableFuture<T> sendHedged(HttpRequest request, ResponseReader<T> reader) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(1);
+
+        CompletableFuture<T> primary = send(request, reader);
+        primary.whenComplete((value, error) -> complete(result, remaining, value, error, false));
+
+        CompletableFuture.delayedExecutor(hedgeDelayMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            remaining.incrementAndGet();
+            hedgesSent.increment();
+            CompletableFuture<T> hedge = send(request, reader);
+            hedge.whenComplete((value, error) -> complete(result, remaining, value, error, true));
+            result.whenComplete((value, error) -> hedge.cancel(true));
+        });
+        result.whenComplete((value, error) -> primary.cancel(true));
+        return result;
+    }
+
+    private <T> void complete(CompletableFuture<T> result, AtomicInteger remaining,
+                              T value, Throwable error, boolean hedge) {
+        if (error == null) {
+            if (result.complete(value) && hedge) {
+                hedgesWon.increment();
+            }
+        } else if (remaining.decrementAndGet() == 0 && !(error instanceof CancellationException)) {
+            result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+        }
+    }
+
+    private <T> T read(HttpResponse<InputStream> response, ResponseReader<T> reader) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new AiServerException("AI server responded " + response.statusCode()
+                        + " for " + response.request().uri().getPath(), response.statusCode());
+            }
+            return reader.read(response.headers().firstValue("Content-Type").orElse(""), body);
+        } catch (IOException e) {
+            throw new AiServerException("Failed to read AI server response", e);
+        }
+    }
+}
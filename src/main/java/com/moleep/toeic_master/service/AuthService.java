@@ -6,7 +6,9 @@ import com.moleep.toeic_master.dto.response.AuthResponse;
 import com.moleep.toeic_master.entity.User;
 import com.moleep.toeic_master.exception.CustomException;
 import com.moleep.toeic_master.repository.UserRepository;
+import com.moleep.toeic_master.security.CustomUserDetails;
 import com.moleep.toeic_master.security.JwtTokenProvider;
+import com.moleep.toeic_master.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class AuthService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
 
@@ -45,7 +48,7 @@ public class AuthService {
 
     @Transactional(readOnly = true)
     public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
+        CustomUserDetails user = userPrincipalCache.findByEmail(request.getEmail())
                 .orElseThrow(() -> new CustomException("이메일 또는 비밀번호가 올바르지 않습니다", HttpStatus.UNAUTHORIZED));
 
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
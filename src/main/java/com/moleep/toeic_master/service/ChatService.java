@@ -8,6 +8,7 @@ import com.moleep.toeic_master.exception.CustomException;
 import com.moleep.toeic_master.repository.ChatMessageRepository;
 import com.moleep.toeic_master.repository.StudyRepository;
 import com.moleep.toeic_master.repository.UserRepository;
+import com.moleep.toeic_master.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -22,6 +23,7 @@ public class ChatService {
     private final ChatMessageRepository chatMessageRepository;
     private final StudyRepository studyRepository;
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
     private final StudyMemberService memberService;
     private final S3Service s3Service;
 
@@ -35,11 +37,10 @@ public class ChatService {
             throw new CustomException("메시지 내용 또는 이미지가 필요합니다", HttpStatus.BAD_REQUEST);
         }
 
-        Study study = studyRepository.findById(studyId)
-                .orElseThrow(() -> new CustomException("스터디를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
-
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new CustomException("사용자를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
+        // 멤버 확인으로 스터디/사용자 존재가 보장되므로 외래 키용 참조만 사용 (조회 쿼리 없음)
+        Study study = studyRepository.getReferenceById(studyId);
+        User user = userRepository.getReferenceById(userId);
+        String nickname = userPrincipalCache.get(userId).getNickname();
 
         ChatMessage message = ChatMessage.builder()
                 .study(study)
@@ -51,7 +52,7 @@ public class ChatService {
         chatMessageRepository.save(message);
 
         String imageUrl = (imageKey != null && !imageKey.isBlank()) ? s3Service.getPresignedUrl(imageKey) : null;
-        return ChatMessageResponse.from(message, imageUrl);
+        return ChatMessageResponse.from(message, nickname, imageUrl);
     }
 
     @Transactional(readOnly = true)
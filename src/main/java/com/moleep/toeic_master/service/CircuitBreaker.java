@@ -0,0 +1,149 @@
+package com.moleep.toeic_master.service;
+
+/**
+ * 최근 windowSize개 호출 결과로 실패율을 계산하는 서킷 브레이커.
+ * <ul>
+ * <li>CLOSED: minimumCalls 이상 호출 중 실패율이 failureRateThreshold(%) 이상이면 OPEN</li>
+ * <li>OPEN: openDurationMs 동안 호출을 거절한 뒤 HALF_OPEN</li>
+ * <li>HALF_OPEN: halfOpenProbes개까지만 시험 호출을 허용. 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN</li>
+ * </ul>
+ * 상태가 바뀔 때마다 epoch를 올리고, 허가받을 때의 epoch와 지금 epoch가 같은 결과만 반영한다.
+ * 그래서 CLOSED에서 시작해 HALF_OPEN 중에 끝난 호출이 시험 호출로 세어지지 않는다.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    static final long REJECTED = -1;
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenProbes;
+
+    // 최근 호출 결과 링 버퍼 (true = 실패)
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long epoch;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold,
+                   long openDurationMs, int halfOpenProbes) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * 호출해도 되면 허가 번호(0 이상), 아니면 REJECTED.
+     * 허용된 호출은 반드시 받은 번호로 onSuccess/onFailure에 결과를 알려야 한다.
+     */
+    synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openDurationMs) {
+                return REJECTED;
+            }
+            transition(State.HALF_OPEN);
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                return REJECTED;
+            }
+            probesStarted++;
+        }
+        return epoch;
+    }
+
+    synchronized void onSuccess(long permit) {
+        if (permit != epoch) {
+            // 이전 상태에서 허가받은 호출의 결과는 무시
+            return;
+        }
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                if (++probesSucceeded >= halfOpenProbes) {
+                    transition(State.CLOSED);
+                    resetWindow();
+                }
+            }
+            case OPEN -> {
+                // OPEN epoch에는 허가가 나가지 않음
+            }
+        }
+    }
+
+    synchronized void onFailure(long permit) {
+        if (permit != epoch) {
+            return;
+        }
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                    open();
+                }
+            }
+            case HALF_OPEN -> open();
+            case OPEN -> {
+            }
+        }
+    }
+
+    /**
+     * 지금 호출하면 거절되지 않을지 (상태는 바꾸지 않음)
+     */
+    synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.currentTimeMillis() - openedAt >= openDurationMs;
+            case HALF_OPEN -> probesStarted < halfOpenProbes;
+        };
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = System.currentTimeMillis();
+        resetWindow();
+    }
+
+    private void transition(State to) {
+        state = to;
+        epoch++;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void resetWindow() {
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
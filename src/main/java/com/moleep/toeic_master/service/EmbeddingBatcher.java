@@ -0,0 +1,200 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.config.AsyncExecutors;
+import com.moleep.toeic_master.exception.AiServerException;
+import com.moleep.toeic_master.exception.AiServerUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시에 들어온 임베딩 요청을 linger-ms 동안(또는 max-size개까지) 모아 한 번의 배치 호출로 보낸다.
+ * AI 서버에 /embed/batch가 있을 때만 batch-endpoint.enabled로 켜며, 꺼져 있거나 /embed/batch가 404를 주면
+ * 요청마다 단건 /embed를 호출한다. 실패하면 기존 단건 호출과 같이 각 요청을 null로 완료하되,
+ * 서킷이나 동시 호출 한도로 호출 자체가 거절되면 AiServerUnavailableException으로 완료해 호출자가 구분할 수 있게 한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingBatcher {
+
+    private final AiServerClient aiServerClient;
+    private final AiResponseParser aiResponseParser;
+    private final AsyncExecutors asyncExecutors;
+
+    @Value("${ai.embedding.batch-endpoint.enabled:false}")
+    private boolean batchEndpointEnabled;
+
+    @Value("${ai.embedding.batch.max-size:32}")
+    private int maxBatchSize;
+
+    @Value("${ai.embedding.batch.linger-ms:5}")
+    private long lingerMs;
+
+    // 아직 배치로 묶이지 않은 요청 수 상한. 넘으면 바로 null로 완료
+    @Value("${ai.embedding.batch.max-queued:1024}")
+    private int maxQueued;
+
+    private BlockingQueue<PendingEmbedding> queue;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    // /embed/batch가 404를 주면 false로 바꾸고 이후로는 단건 /embed만 사용
+    private volatile boolean useBatchEndpoint;
+
+    private record PendingEmbedding(String text, CompletableFuture<float[]> result) {}
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(maxQueued);
+        useBatchEndpoint = batchEndpointEnabled;
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "embedding-batch-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatcher.interrupt();
+        PendingEmbedding pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().complete(null);
+        }
+    }
+
+    /**
+     * 지금 임베딩 요청에 쓰는 AI 서버 엔드포인트 (서킷 상태 확인용)
+     */
+    public AiServerClient.Endpoint endpoint() {
+        return useBatchEndpoint ? AiServerClient.Endpoint.EMBED_BATCH : AiServerClient.Endpoint.EMBED;
+    }
+
+    /**
+     * text의 임베딩을 비동기로 요청한다. 실패 시 null, AI 서버 호출이 거절되면 AiServerUnavailableException으로 완료
+     */
+    public CompletableFuture<float[]> submit(String text) {
+        CompletableFuture<float[]> result = new CompletableFuture<>();
+        if (!running) {
+            result.complete(null);
+            return result;
+        }
+        if (!queue.offer(new PendingEmbedding(text, result))) {
+            log.warn("Embedding queue full ({}), rejecting request", maxQueued);
+            result.complete(null);
+        }
+        return result;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+            try {
+                batch.add(queue.take());
+
+                // 첫 요청 이후 linger-ms 동안 추가 요청을 모음 (단건 /embed를 쓰는 중이면 하나씩 보냄)
+                int batchSize = useBatchEndpoint ? maxBatchSize : 1;
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingEmbedding next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                // 전송 실행기가 가득 차면 이 스레드에서 직접 보내므로 새 배치를 모으는 속도가 늦춰짐
+                asyncExecutors.embedding().execute(() -> send(batch));
+            } catch (InterruptedException e) {
+                batch.forEach(pending -> pending.result().complete(null));
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RejectedExecutionException e) {
+                batch.forEach(pending -> pending.result().complete(null));
+            } catch (RuntimeException e) {
+                // 한 배치의 실패로 수집 스레드가 멈추지 않도록 그 배치만 실패 처리하고 계속 진행
+                log.error("Failed to dispatch embedding batch of {} texts", batch.size(), e);
+                batch.forEach(pending -> pending.result().complete(null));
+            }
+        }
+    }
+
+    private void send(List<PendingEmbedding> batch) {
+        try {
+            // 같은 텍스트는 한 번만 보냄
+            Map<String, List<CompletableFuture<float[]>>> waitersByText = new LinkedHashMap<>();
+            for (PendingEmbedding pending : batch) {
+                waitersByText.computeIfAbsent(pending.text(), text -> new ArrayList<>()).add(pending.result());
+            }
+            List<String> texts = new ArrayList<>(waitersByText.keySet());
+
+            List<float[]> embeddings = useBatchEndpoint ? requestBatch(texts) : requestEach(texts);
+            for (int i = 0; i < texts.size(); i++) {
+                float[] embedding = embeddings != null && i < embeddings.size() ? embeddings.get(i) : null;
+                for (CompletableFuture<float[]> waiter : waitersByText.get(texts.get(i))) {
+                    waiter.complete(embedding);
+                }
+            }
+        } catch (AiServerUnavailableException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        } finally {
+            // 예외로 빠져나와도 기다리는 호출자가 남지 않도록 (이미 완료된 요청은 그대로)
+            batch.forEach(pending -> pending.result().complete(null));
+        }
+    }
+
+    private List<float[]> requestBatch(List<String> texts) {
+        try {
+            return aiServerClient.post(AiServerClient.Endpoint.EMBED_BATCH, Map.of("texts", texts),
+                    aiResponseParser::readEmbeddings);
+        } catch (AiServerUnavailableException e) {
+            throw e;
+        } catch (AiServerException e) {
+            if (e.getStatusCode() == 404) {
+                log.warn("AI server has no /embed/batch, falling back to /embed per text");
+                useBatchEndpoint = false;
+                return requestEach(texts);
+            }
+            log.warn("Failed to get embeddings for batch of {} texts: {}", texts.size(), e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to get embeddings for batch of {} texts", texts.size(), e);
+        }
+        return null;
+    }
+
+    private List<float[]> requestEach(List<String> texts) {
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(requestOne(text));
+        }
+        return embeddings;
+    }
+
+    private float[] requestOne(String text) {
+        try {
+            return aiServerClient.post(AiServerClient.Endpoint.EMBED, Map.of("text", text),
+                    aiResponseParser::readEmbedding);
+        } catch (AiServerUnavailableException e) {
+            throw e;
+        } catch (AiServerException e) {
+            log.warn("Failed to get embedding: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to get embedding", e);
+        }
+        return null;
+    }
+}
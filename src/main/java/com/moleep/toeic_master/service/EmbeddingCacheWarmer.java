@@ -0,0 +1,39 @@
+package com.moleep.toeic_master.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 기동이 끝난 뒤 임베딩 캐시를 백그라운드에서 적재한다.
+ * 적재가 끝날 때까지 readiness 상태는 OUT_OF_SERVICE (EmbeddingCacheHealthIndicator)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingCacheWarmer {
+
+    private final SchoolEmbeddingCache schoolEmbeddingCache;
+    private final StudyEmbeddingCache studyEmbeddingCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        Thread thread = new Thread(this::warmUp, "embedding-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            schoolEmbeddingCache.warmUp();
+            studyEmbeddingCache.warmUp();
+            log.info("Embedding caches ready in {} ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // readiness가 계속 실패하므로 오케스트레이터가 인스턴스를 교체함
+            log.error("Embedding cache warmup failed", e);
+        }
+    }
+}
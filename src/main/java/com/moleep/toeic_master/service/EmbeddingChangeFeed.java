@@ -0,0 +1,192 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.security.UserPrincipalCache;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * 인스턴스 간 임베딩 캐시 변경 전파 (PostgreSQL LISTEN/NOTIFY).
+ * 쓰는 쪽은 트랜잭션 안에서 publish하고(NOTIFY는 커밋 시 전달, 롤백 시 폐기),
+ * 각 인스턴스는 전용 연결로 알림을 받아 해당 행을 DB에서 다시 읽어 반영한다.
+ * 놓친 알림은 embedding_version 기준 catch-up이 주기적으로 보완하고,
+ * 재연결 직후에는 그 사이 삭제된 행도 찾아 지운다(reconcile). 알림은 DB에서 현재 상태를 다시 읽게 할 뿐이므로
+ * 순서가 바뀌거나 늦게 와도 결과는 같다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingChangeFeed {
+
+    private static final String CHANNEL = "embedding_changed";
+
+    // USER_PRINCIPAL은 임베딩이 아닌 인증 주체 캐시(닉네임 등) 무효화
+    public enum Kind { STUDY, SCHOOL, USER, USER_PRINCIPAL }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StudyEmbeddingCache studyEmbeddingCache;
+    private final SchoolEmbeddingCache schoolEmbeddingCache;
+    private final UserEmbeddingCache userEmbeddingCache;
+    private final UserPrincipalCache userPrincipalCache;
+
+    @Value("${embedding.change-feed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${embedding.change-feed.poll-timeout-ms:5000}")
+    private int pollTimeoutMs;
+
+    @Value("${embedding.change-feed.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    // 자기 자신이 보낸 알림은 이미 로컬에 반영했으므로 건너뜀
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private Thread listener;
+    private volatile boolean running;
+
+    /**
+     * 현재 트랜잭션 커밋 시 다른 인스턴스에 (kind, id) 변경을 알린다.
+     * 로컬 캐시는 호출자가 직접 갱신한다.
+     */
+    public void publish(Kind kind, Long id) {
+        if (!enabled) {
+            return;
+        }
+        String payload = nodeId + ":" + kind + ":" + id;
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, CHANNEL, payload);
+    }
+
+    /**
+     * 프로필 변경을 같은 트랜잭션의 알림으로 보내 다른 인스턴스의 인증 주체 캐시도 커밋 후 비워지게 한다.
+     * 로컬 캐시는 UserPrincipalCache가 커밋 후 직접 비운다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        publish(Kind.USER_PRINCIPAL, event.userId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listenLoop, "embedding-change-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * 놓친 알림 보완
+     */
+    @Scheduled(fixedDelayString = "${embedding.change-feed.catch-up-interval-ms:60000}",
+            initialDelayString = "${embedding.change-feed.catch-up-interval-ms:60000}")
+    public void catchUp() {
+        catchUp(false);
+    }
+
+    /**
+     * reconcile이면 삭제된 행까지 확인 (캐시 크기만큼 id를 읽으므로 재연결 직후에만)
+     */
+    private void catchUp(boolean reconcile) {
+        if (!enabled) {
+            return;
+        }
+        int schools = schoolEmbeddingCache.catchUp(reconcile);
+        int studies = studyEmbeddingCache.catchUp(reconcile);
+        if (schools + studies > 0) {
+            log.info("Embedding change catch-up applied {} schools, {} studies", schools, studies);
+        }
+    }
+
+    private void listenLoop() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for embedding changes on {}", CHANNEL);
+                if (reconnecting) {
+                    catchUp(true);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Embedding change listener disconnected: {}", e.getMessage());
+            }
+            reconnecting = true;
+            try {
+                Thread.sleep(reconnectDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * payload: {nodeId}:{kind}:{id} (이전 버전 인스턴스가 보내는 뒤쪽 필드는 무시)
+     */
+    private void apply(String payload) {
+        String[] parts = payload.split(":");
+        if (parts.length < 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        try {
+            Long id = Long.valueOf(parts[2]);
+            switch (Kind.valueOf(parts[1])) {
+                case STUDY -> studyEmbeddingCache.refresh(id);
+                case SCHOOL -> schoolEmbeddingCache.refresh(id);
+                case USER -> userEmbeddingCache.invalidate(id);
+                case USER_PRINCIPAL -> userPrincipalCache.invalidate(id);
+            }
+        } catch (Exception e) {
+            // 다음 catch-up에서 다시 반영됨
+            log.warn("Failed to apply embedding change {}", payload, e);
+        }
+    }
+}
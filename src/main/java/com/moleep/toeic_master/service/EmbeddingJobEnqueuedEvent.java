@@ -0,0 +1,9 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.entity.EmbeddingTargetType;
+
+/**
+ * 임베딩 작업이 기록됨. 커밋 후 대기 중인 워커를 깨우는 데 사용
+ */
+public record EmbeddingJobEnqueuedEvent(EmbeddingTargetType targetType, Long targetId) {
+}
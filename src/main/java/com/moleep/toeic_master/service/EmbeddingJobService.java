@@ -0,0 +1,177 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.entity.EmbeddingJob;
+import com.moleep.toeic_master.entity.EmbeddingJobStatus;
+import com.moleep.toeic_master.entity.EmbeddingTargetType;
+import com.moleep.toeic_master.entity.Study;
+import com.moleep.toeic_master.entity.StudyEmbedding;
+import com.moleep.toeic_master.entity.User;
+import com.moleep.toeic_master.entity.UserEmbedding;
+import com.moleep.toeic_master.repository.EmbeddingJobRepository;
+import com.moleep.toeic_master.repository.StudyEmbeddingRepository;
+import com.moleep.toeic_master.repository.StudyRepository;
+import com.moleep.toeic_master.repository.UserEmbeddingRepository;
+import com.moleep.toeic_master.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 임베딩 작업 대기열(embedding_jobs) 기록과 상태 전이.
+ * AI 서버 호출은 트랜잭션 밖(EmbeddingJobWorker)에서 일어나므로 커넥션을 붙잡지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingJobService {
+
+    private final EmbeddingJobRepository embeddingJobRepository;
+    private final StudyRepository studyRepository;
+    private final StudyEmbeddingRepository studyEmbeddingRepository;
+    private final UserRepository userRepository;
+    private final UserEmbeddingRepository userEmbeddingRepository;
+    private final EmbeddingService embeddingService;
+    private final StudyEmbeddingCache studyEmbeddingCache;
+    private final UserEmbeddingCache userEmbeddingCache;
+    private final EmbeddingChangeFeed embeddingChangeFeed;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 가져간 작업을 다른 워커가 다시 가져가기까지의 시간 (워커가 죽은 경우 대비)
+    @Value("${embedding.jobs.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${embedding.jobs.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${embedding.jobs.retry-base-seconds:5}")
+    private long retryBaseSeconds;
+
+    /**
+     * 처리할 작업. text는 가져간 시점의 대상 텍스트
+     */
+    public record ClaimedJob(Long id, EmbeddingTargetType targetType, Long targetId, String text) {}
+
+    /**
+     * 호출한 트랜잭션 안에서 작업을 기록한다. 커밋되어야 워커가 가져갈 수 있다.
+     */
+    @Transactional
+    public void enqueue(EmbeddingTargetType targetType, Long targetId) {
+        embeddingJobRepository.save(EmbeddingJob.builder()
+                .targetType(targetType)
+                .targetId(targetId)
+                .build());
+        eventPublisher.publishEvent(new EmbeddingJobEnqueuedEvent(targetType, targetId));
+    }
+
+    /**
+     * 가져갈 수 있는 작업을 최대 limit개 잠그고 임대 시간만큼 미룬 뒤 반환한다.
+     * 대상이 사라졌거나 텍스트가 비어 있으면 작업을 지운다.
+     */
+    @Transactional
+    public List<ClaimedJob> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ClaimedJob> claimed = new ArrayList<>();
+        for (EmbeddingJob job : embeddingJobRepository.findClaimable(now, limit)) {
+            String text = loadText(job.getTargetType(), job.getTargetId());
+            if (text == null || text.isBlank()) {
+                embeddingJobRepository.delete(job);
+                continue;
+            }
+            job.setAttempts(job.getAttempts() + 1);
+            job.setAvailableAt(now.plusSeconds(leaseSeconds));
+            claimed.add(new ClaimedJob(job.getId(), job.getTargetType(), job.getTargetId(), text));
+        }
+        return claimed;
+    }
+
+    /**
+     * 임베딩을 대상에 기록하고 작업을 지운다.
+     * 그 사이 텍스트가 바뀌었으면 기록하지 않음 (바뀐 텍스트의 작업이 따로 있음)
+     */
+    @Transactional
+    public void complete(ClaimedJob job, float[] embedding) {
+        byte[] bytes = embeddingService.floatArrayToBytes(embedding);
+        switch (job.targetType()) {
+            case STUDY -> studyRepository.findById(job.targetId())
+                    .filter(study -> Objects.equals(study.getContent(), job.text()))
+                    .ifPresent(study -> {
+                        studyEmbeddingRepository.save(StudyEmbedding.builder()
+                                .studyId(study.getId())
+                                .embedding(bytes)
+                                .build());
+                        // 임베딩은 별도 테이블이므로 catch-up 기준 시각을 직접 갱신
+                        study.setEmbeddingVersion(System.currentTimeMillis());
+                        embeddingChangeFeed.publish(EmbeddingChangeFeed.Kind.STUDY, study.getId());
+                        afterCommit(() -> studyEmbeddingCache.put(study, embedding));
+                    });
+            case USER -> userRepository.findById(job.targetId())
+                    .filter(user -> Objects.equals(user.getTendency(), job.text()))
+                    .ifPresent(user -> {
+                        userEmbeddingRepository.save(UserEmbedding.builder()
+                                .userId(user.getId())
+                                .embedding(bytes)
+                                .build());
+                        embeddingChangeFeed.publish(EmbeddingChangeFeed.Kind.USER, user.getId());
+                        afterCommit(() -> userEmbeddingCache.invalidate(user.getId()));
+                    });
+        }
+        embeddingJobRepository.deleteById(job.id());
+    }
+
+    /**
+     * 재시도 간격을 지수적으로 늘리고, 최대 시도 횟수를 넘으면 FAILED로 남긴다.
+     */
+    @Transactional
+    public void fail(ClaimedJob claimed, String error) {
+        embeddingJobRepository.findById(claimed.id()).ifPresent(job -> {
+            job.setLastError(error);
+            if (job.getAttempts() >= maxAttempts) {
+                job.setStatus(EmbeddingJobStatus.FAILED);
+                log.warn("Embedding job {} for {} {} failed after {} attempts: {}",
+                        job.getId(), job.getTargetType(), job.getTargetId(), job.getAttempts(), error);
+                return;
+            }
+            long delay = retryBaseSeconds << Math.min(job.getAttempts() - 1, 10);
+            job.setAvailableAt(LocalDateTime.now().plusSeconds(delay));
+        });
+    }
+
+    /**
+     * AI 서버가 호출을 거절해(서킷 열림, 동시 호출 한도) 처리하지 못한 작업을 바로 다시 가져갈 수 있게 돌려놓는다.
+     * 작업 자체의 실패가 아니므로 claim에서 올린 시도 횟수를 되돌린다.
+     */
+    @Transactional
+    public void defer(List<ClaimedJob> claimed) {
+        LocalDateTime now = LocalDateTime.now();
+        embeddingJobRepository.findAllById(claimed.stream().map(ClaimedJob::id).toList()).forEach(job -> {
+            job.setAttempts(Math.max(0, job.getAttempts() - 1));
+            job.setAvailableAt(now);
+        });
+    }
+
+    private String loadText(EmbeddingTargetType targetType, Long targetId) {
+        return switch (targetType) {
+            case STUDY -> studyRepository.findById(targetId).map(Study::getContent).orElse(null);
+            case USER -> userRepository.findById(targetId).map(User::getTendency).orElse(null);
+        };
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
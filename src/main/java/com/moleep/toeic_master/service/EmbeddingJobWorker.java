@@ -0,0 +1,129 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.exception.AiServerUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * embedding_jobs를 배치로 가져가 AI 서버에서 임베딩을 받아 대상에 기록하는 워커 풀.
+ * 새 작업이 커밋되면 바로 깨어나고, 그 외에는 poll-interval-ms마다 확인한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingJobWorker {
+
+    private final EmbeddingJobService embeddingJobService;
+    private final EmbeddingService embeddingService;
+    private final AiServerClient aiServerClient;
+    private final EmbeddingBatcher embeddingBatcher;
+
+    @Value("${embedding.jobs.workers:2}")
+    private int workerCount;
+
+    @Value("${embedding.jobs.batch-size:16}")
+    private int batchSize;
+
+    @Value("${embedding.jobs.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "embedding-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(EmbeddingJobEnqueuedEvent event) {
+        wakeUp.release();
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                if (processBatch() == 0) {
+                    wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Embedding job worker failed", e);
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int processBatch() {
+        // AI 서버 서킷이 열려 있으면 작업을 가져가지 않고 대기열에 남겨 둠 (시도 횟수를 소모하지 않음)
+        if (!aiServerClient.isAvailable(embeddingBatcher.endpoint())) {
+            return 0;
+        }
+        List<EmbeddingJobService.ClaimedJob> jobs = embeddingJobService.claim(batchSize);
+        if (jobs.isEmpty()) {
+            return 0;
+        }
+        List<float[]> embeddings;
+        try {
+            embeddings = embeddingService.getEmbeddings(
+                    jobs.stream().map(EmbeddingJobService.ClaimedJob::text).toList());
+        } catch (AiServerUnavailableException e) {
+            // 배치 도중 서킷이 열렸거나 동시 호출 한도에 걸린 경우. 임대만 풀고 시도 횟수는 소모하지 않음
+            log.info("Deferring {} embedding jobs: {}", jobs.size(), e.getMessage());
+            embeddingJobService.defer(jobs);
+            return 0;
+        }
+        for (int i = 0; i < jobs.size(); i++) {
+            EmbeddingJobService.ClaimedJob job = jobs.get(i);
+            float[] embedding = embeddings.get(i);
+            try {
+                if (embedding != null) {
+                    embeddingJobService.complete(job, embedding);
+                } else {
+                    embeddingJobService.fail(job, "Embedding unavailable");
+                }
+            } catch (Exception e) {
+                log.error("Failed to apply embedding job {}", job.id(), e);
+            }
+        }
+        return jobs.size();
+    }
+}
@@ -0,0 +1,124 @@
+package com.moleep.toeic_master.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 정규화한 텍스트의 SHA-256 해시를 키로 임베딩 결과를 보관하는 LRU 캐시.
+ * 같은 텍스트에 대한 동시 요청은 진행 중인 하나의 호출 결과를 공유한다.
+ */
+@Component
+public class EmbeddingResultCache {
+
+    private final int maxSize;
+    private final Map<Key, float[]> entries;
+    private final Map<Key, CompletableFuture<float[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter shared;
+
+    private record Key(long high, long low) {}
+
+    public EmbeddingResultCache(@Value("${ai.embedding.cache.max-size:10000}") int maxSize,
+                                MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest) {
+                return size() > EmbeddingResultCache.this.maxSize;
+            }
+        };
+        this.hits = Counter.builder("embedding.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("embedding.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.shared = Counter.builder("embedding.cache.requests").tag("result", "shared").register(meterRegistry);
+        Gauge.builder("embedding.cache.size", this, EmbeddingResultCache::size).register(meterRegistry);
+    }
+
+    /**
+     * 캐시에 있으면 바로, 같은 텍스트를 요청 중이면 그 결과를, 아니면 loader로 요청한다.
+     * 실패(null)는 캐시하지 않으며 반환되는 배열은 호출자별 복사본이다.
+     */
+    public CompletableFuture<float[]> get(String text, Function<String, CompletableFuture<float[]>> loader) {
+        Key key = keyOf(text);
+        float[] cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached.clone());
+        }
+
+        CompletableFuture<float[]> created = new CompletableFuture<>();
+        CompletableFuture<float[]> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            shared.increment();
+            return existing.thenApply(EmbeddingResultCache::copy);
+        }
+
+        misses.increment();
+        CompletableFuture<float[]> loading;
+        try {
+            loading = loader.apply(text);
+        } catch (RuntimeException e) {
+            // 동기 예외로 끝나면 whenComplete가 걸리지 않으므로 여기서 진행 중 항목을 치워야 함
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+            return created.thenApply(EmbeddingResultCache::copy);
+        }
+        loading.whenComplete((embedding, error) -> {
+            // 진행 중 목록에서 빼기 전에 캐시에 넣어야 그 사이 요청이 다시 호출하지 않음
+            if (embedding != null) {
+                synchronized (entries) {
+                    entries.put(key, embedding);
+                }
+            }
+            inFlight.remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(embedding);
+            }
+        });
+        return created.thenApply(EmbeddingResultCache::copy);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static float[] copy(float[] embedding) {
+        return embedding != null ? embedding.clone() : null;
+    }
+
+    /**
+     * 유니코드 정규화(NFC), 앞뒤 공백 제거, 연속 공백 축약 후 SHA-256 앞 128비트
+     */
+    private static Key keyOf(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC).strip().replaceAll("\\s+", " ");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new Key(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
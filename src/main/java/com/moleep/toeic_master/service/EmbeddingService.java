@@ -1,119 +1,135 @@
 package com.moleep.toeic_master.service;
 
+import com.moleep.toeic_master.exception.AiServerException;
+import com.moleep.toeic_master.exception.AiServerUnavailableException;
+import com.moleep.toeic_master.vector.EmbeddingCodec;
+import com.moleep.toeic_master.vector.VectorMath;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmbeddingService {
 
-    private static final String EMBEDDING_API_URL = "http://172.10.5.41/embed";
-    private static final String VENUE_EVAL_EMBED_URL = "http://172.10.5.41/venue/eval-embed";
-
-    private final RestTemplate restTemplate;
-
-    public float[] getEmbedding(String text) {
-        if (text == null || text.isBlank()) {
-            return null;
+    private final AiServerClient aiServerClient;
+    private final AiResponseParser aiResponseParser;
+    private final EmbeddingBatcher embeddingBatcher;
+    private final EmbeddingResultCache embeddingResultCache;
+
+    @Value("${ai.embedding.timeout-ms:30000}")
+    private long embeddingTimeoutMs;
+
+    @Value("${embedding.storage.format:FLOAT32}")
+    private EmbeddingCodec.Format storageFormat;
+
+    /**
+     * 여러 텍스트를 한꺼번에 요청. 같은 텍스트는 캐시에서 반환하고, 새 텍스트는 동시에 들어온 다른 요청과 함께 배치로 전송된다.
+     * 결과는 texts와 같은 순서이며 실패하거나 빈 텍스트는 null.
+     * 서킷이 열려 있거나 동시 호출 한도를 넘어 AI 서버를 호출하지 못했으면 AiServerUnavailableException
+     */
+    public List<float[]> getEmbeddings(List<String> texts) {
+        List<CompletableFuture<float[]>> futures = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            futures.add(text == null || text.isBlank()
+                    ? CompletableFuture.completedFuture(null)
+                    : embeddingResultCache.get(text, embeddingBatcher::submit));
         }
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (int i = 0; i < futures.size(); i++) {
+            embeddings.add(await(futures.get(i), texts.get(i)));
+        }
+        return embeddings;
+    }
 
+    private float[] await(CompletableFuture<float[]> future, String text) {
         try {
-            Map<String, String> request = Map.of("text", text);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(EMBEDDING_API_URL, request, Map.class);
-
-            if (response != null && response.containsKey("embedding")) {
-                @SuppressWarnings("unchecked")
-                List<Double> embeddingList = (List<Double>) response.get("embedding");
-                float[] embedding = new float[embeddingList.size()];
-                for (int i = 0; i < embeddingList.size(); i++) {
-                    embedding[i] = embeddingList.get(i).floatValue();
-                }
-                return embedding;
+            return future.get(embeddingTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            if (e.getCause() instanceof AiServerUnavailableException unavailable) {
+                throw unavailable;
             }
-        } catch (Exception e) {
-            log.error("Failed to get embedding for text: {}", text, e);
+            // 본문은 사용자 입력이라 길이만 남김
+            log.warn("Failed to get embedding for text of length {}: {}", text.length(), e.getMessage());
         }
         return null;
     }
 
+    /**
+     * embedding.storage.format 형식으로 직렬화 (BYTEA 저장용)
+     */
     public byte[] floatArrayToBytes(float[] floats) {
         if (floats == null) {
             return null;
         }
-        ByteBuffer buffer = ByteBuffer.allocate(floats.length * 4);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-        for (float f : floats) {
-            buffer.putFloat(f);
-        }
-        return buffer.array();
+        return EmbeddingCodec.encode(floats, storageFormat);
     }
 
+    /**
+     * 저장 형식과 관계없이 읽는다 (헤더 없는 이전 float32 값 포함)
+     */
     public float[] bytesToFloatArray(byte[] bytes) {
         if (bytes == null) {
             return null;
         }
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-        float[] floats = new float[bytes.length / 4];
-        for (int i = 0; i < floats.length; i++) {
-            floats[i] = buffer.getFloat();
-        }
-        return floats;
+        return EmbeddingCodec.decode(bytes);
     }
 
     public double cosineSimilarity(float[] a, float[] b) {
-        if (a == null || b == null || a.length != b.length) {
-            return 0.0;
-        }
+        return VectorMath.cosine(a, b);
+    }
 
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
+    /**
+     * 행 단위로 이어 붙인 matrix의 각 행과 query의 내적을 out에 기록 (행 개수 = out.length)
+     * 정규화된 벡터끼리는 내적이 곧 코사인 유사도
+     */
+    public void dotProducts(float[] query, float[] matrix, float[] out) {
+        VectorMath.dotProducts(query, matrix, out);
+    }
 
-        for (int i = 0; i < a.length; i++) {
-            dotProduct += a[i] * b[i];
-            normA += a[i] * a[i];
-            normB += b[i] * b[i];
+    public VenueEvalResult getVenueEvaluation(List<String> reviews) {
+        if (reviews == null || reviews.isEmpty()) {
+            return null;
         }
 
-        if (normA == 0 || normB == 0) {
-            return 0.0;
+        try {
+            return aiServerClient.post(AiServerClient.Endpoint.VENUE_EVAL, Map.of("reviews", reviews),
+                    aiResponseParser::readVenueEval);
+        } catch (AiServerException e) {
+            log.warn("Failed to get venue evaluation for reviews: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to get venue evaluation for reviews", e);
         }
-
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+        return null;
     }
 
-    public VenueEvalResult getVenueEvaluation(List<String> reviews) {
-        if (reviews == null || reviews.isEmpty()) {
+    /**
+     * 리뷰 청크별 부분 평가들을 하나의 평가와 임베딩으로 합친다. weights는 청크별 리뷰 수
+     */
+    public VenueEvalResult combineVenueEvaluations(List<String> evaluations, List<Integer> weights) {
+        if (evaluations == null || evaluations.isEmpty()) {
             return null;
         }
 
         try {
-            Map<String, List<String>> request = Map.of("reviews", reviews);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.postForObject(VENUE_EVAL_EMBED_URL, request, Map.class);
-
-            if (response != null && response.containsKey("evaluation") && response.containsKey("embedding")) {
-                String evaluation = (String) response.get("evaluation");
-                @SuppressWarnings("unchecked")
-                List<Double> embeddingList = (List<Double>) response.get("embedding");
-                float[] embedding = new float[embeddingList.size()];
-                for (int i = 0; i < embeddingList.size(); i++) {
-                    embedding[i] = embeddingList.get(i).floatValue();
-                }
-                return new VenueEvalResult(evaluation, embedding);
-            }
+            return aiServerClient.post(AiServerClient.Endpoint.VENUE_COMBINE,
+                    Map.of("evaluations", evaluations, "weights", weights), aiResponseParser::readVenueEval);
+        } catch (AiServerException e) {
+            log.warn("Failed to combine {} venue evaluations: {}", evaluations.size(), e.getMessage());
         } catch (Exception e) {
-            log.error("Failed to get venue evaluation for reviews", e);
+            log.error("Failed to combine {} venue evaluations", evaluations.size(), e);
         }
         return null;
     }
@@ -0,0 +1,83 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.vector.EmbeddingMatrix;
+import com.moleep.toeic_master.vector.EmbeddingSnapshotFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 임베딩 캐시별 스냅샷 파일({dir}/{name}.emb)을 읽고 쓴다.
+ */
+@Component
+@Slf4j
+public class EmbeddingSnapshotStore {
+
+    @Value("${embedding.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${embedding.snapshot.dir:./data/embedding-snapshots}")
+    private String directory;
+
+    // 스냅샷 시각 직전에 커밋된 트랜잭션까지 다시 반영하기 위한 여유 구간
+    @Value("${embedding.snapshot.replay-overlap-ms:60000}")
+    private long replayOverlapMs;
+
+    /**
+     * 스냅샷을 매핑해 반환한다. 비활성화되었거나 파일이 없거나 손상되었으면 null
+     */
+    public EmbeddingSnapshotFile.Mapped load(String name) {
+        if (!enabled) {
+            return null;
+        }
+        Path path = path(name);
+        if (!Files.exists(path)) {
+            log.info("No {} embedding snapshot at {}, loading from database", name, path);
+            return null;
+        }
+        try {
+            EmbeddingSnapshotFile.Mapped mapped = EmbeddingSnapshotFile.map(path);
+            log.info("Mapped {} embedding snapshot: {} rows, high water {}", name, mapped.count(), mapped.highWater());
+            return mapped;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable {} embedding snapshot at {}", name, path, e);
+            return null;
+        }
+    }
+
+    /**
+     * highWater 이전의 변경이 모두 반영된 snapshot을 기록한다. 성공 여부 반환
+     */
+    public boolean save(String name, EmbeddingMatrix.Snapshot snapshot, long highWater) {
+        if (!enabled) {
+            return false;
+        }
+        Path path = path(name);
+        try {
+            long start = System.currentTimeMillis();
+            EmbeddingSnapshotFile.write(path, snapshot, highWater);
+            log.info("Wrote {} embedding snapshot with {} rows in {} ms",
+                    name, snapshot.liveCount(), System.currentTimeMillis() - start);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to write {} embedding snapshot to {}", name, path, e);
+            return false;
+        }
+    }
+
+    /**
+     * 스냅샷 적재 후 DB에서 다시 읽어야 하는 변경의 시작 시각
+     */
+    public long replayFrom(long highWater) {
+        return highWater - replayOverlapMs;
+    }
+
+    private Path path(String name) {
+        return Paths.get(directory, name + ".emb");
+    }
+}
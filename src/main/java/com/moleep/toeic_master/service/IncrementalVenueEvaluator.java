@@ -0,0 +1,159 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.entity.VenueEvalChunk;
+import com.moleep.toeic_master.repository.ReviewContentView;
+import com.moleep.toeic_master.repository.VenueEvalChunkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * 리뷰를 id 범위로 나눈 청크별 부분 평가를 저장해 두고,
+ * 새로 생기거나 내용이 바뀐 청크만 AI 서버로 보낸 뒤 부분 평가들을 합친다.
+ * 저장된 청크의 범위는 유지하므로 리뷰가 지워지거나 수정되면 그 리뷰가 속한 청크만,
+ * 리뷰가 추가되면 (chunk-size개가 될 때까지) 마지막 청크나 새 청크만 다시 평가하면 된다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IncrementalVenueEvaluator {
+
+    private final VenueEvalChunkRepository venueEvalChunkRepository;
+    private final EmbeddingService embeddingService;
+
+    @Value("${venue-eval.chunk-size:20}")
+    private int chunkSize;
+
+    /**
+     * reviews[from, to)가 리뷰 id 범위 [firstReviewId, lastReviewId]에 속하는 청크
+     */
+    private record Chunk(long firstReviewId, long lastReviewId, int from, int to) {}
+
+    /**
+     * reviews(id 순)의 전체 평가. AI 서버 호출이 실패하면 null
+     */
+    public EmbeddingService.VenueEvalResult evaluate(Long schoolId, List<ReviewContentView> reviews) {
+        List<VenueEvalChunk> stored = venueEvalChunkRepository.findBySchoolIdOrderByFirstReviewId(schoolId).stream()
+                .filter(chunk -> chunk.getFirstReviewId() != null && chunk.getLastReviewId() != null)
+                .toList();
+        List<Chunk> chunks = split(reviews, stored);
+
+        List<VenueEvalChunk> parts = new ArrayList<>(chunks.size());
+        int evaluated = 0;
+        int storedIndex = 0;
+        for (Chunk chunk : chunks) {
+            // 청크와 저장된 범위 모두 first 순이므로 함께 훑으며 같은 범위를 찾음
+            while (storedIndex < stored.size() && stored.get(storedIndex).getFirstReviewId() < chunk.firstReviewId()) {
+                storedIndex++;
+            }
+            VenueEvalChunk part = storedIndex < stored.size()
+                    && stored.get(storedIndex).getFirstReviewId() == chunk.firstReviewId()
+                    ? stored.get(storedIndex) : null;
+
+            List<String> contents = reviews.subList(chunk.from(), chunk.to()).stream()
+                    .map(ReviewContentView::getContent)
+                    .toList();
+            String hash = hash(contents);
+            if (part == null || part.getLastReviewId() != chunk.lastReviewId() || !hash.equals(part.getContentHash())) {
+                EmbeddingService.VenueEvalResult result = embeddingService.getVenueEvaluation(contents);
+                if (result == null) {
+                    return null;
+                }
+                if (part == null) {
+                    part = VenueEvalChunk.builder()
+                            .schoolId(schoolId)
+                            .firstReviewId(chunk.firstReviewId())
+                            .build();
+                }
+                part.setLastReviewId(chunk.lastReviewId());
+                part.setContentHash(hash);
+                part.setReviewCount(contents.size());
+                part.setEvaluation(result.evaluation());
+                part.setEmbedding(embeddingService.floatArrayToBytes(result.embedding()));
+                part = venueEvalChunkRepository.save(part);
+                evaluated++;
+            }
+            parts.add(part);
+        }
+        venueEvalChunkRepository.deleteStale(schoolId, parts.stream().map(VenueEvalChunk::getId).toList());
+        log.info("School {}: {} review chunks, {} evaluated, {} reused",
+                schoolId, chunks.size(), evaluated, chunks.size() - evaluated);
+
+        if (parts.size() == 1) {
+            VenueEvalChunk only = parts.get(0);
+            return new EmbeddingService.VenueEvalResult(only.getEvaluation(),
+                    embeddingService.bytesToFloatArray(only.getEmbedding()));
+        }
+        return embeddingService.combineVenueEvaluations(
+                parts.stream().map(VenueEvalChunk::getEvaluation).toList(),
+                parts.stream().map(VenueEvalChunk::getReviewCount).toList());
+    }
+
+    public void clear(Long schoolId) {
+        venueEvalChunkRepository.deleteBySchoolId(schoolId);
+    }
+
+    /**
+     * 저장된 범위는 그대로 쓰고(리뷰가 모두 지워진 범위는 버림), 범위 밖 리뷰는 chunk-size개씩 새 청크로 묶는다.
+     * 마지막 청크가 덜 찼으면 그 뒤에 추가된 리뷰로 먼저 채운다.
+     */
+    private List<Chunk> split(List<ReviewContentView> reviews, List<VenueEvalChunk> stored) {
+        List<Chunk> chunks = new ArrayList<>();
+        int next = 0;
+        for (VenueEvalChunk range : stored) {
+            int end = next;
+            while (end < reviews.size() && reviews.get(end).getId() < range.getFirstReviewId()) {
+                end++;
+            }
+            addNewChunks(reviews, next, end, chunks);
+            next = end;
+            while (end < reviews.size() && reviews.get(end).getId() <= range.getLastReviewId()) {
+                end++;
+            }
+            if (end > next) {
+                chunks.add(new Chunk(range.getFirstReviewId(), range.getLastReviewId(), next, end));
+                next = end;
+            }
+        }
+        if (!chunks.isEmpty() && next < reviews.size()) {
+            Chunk last = chunks.get(chunks.size() - 1);
+            int size = last.to() - last.from();
+            if (last.to() == next && size < chunkSize) {
+                int end = Math.min(reviews.size(), next + chunkSize - size);
+                chunks.set(chunks.size() - 1,
+                        new Chunk(last.firstReviewId(), reviews.get(end - 1).getId(), last.from(), end));
+                next = end;
+            }
+        }
+        addNewChunks(reviews, next, reviews.size(), chunks);
+        return chunks;
+    }
+
+    private void addNewChunks(List<ReviewContentView> reviews, int from, int to, List<Chunk> chunks) {
+        for (int start = from; start < to; start += chunkSize) {
+            int end = Math.min(to, start + chunkSize);
+            chunks.add(new Chunk(reviews.get(start).getId(), reviews.get(end - 1).getId(), start, end));
+        }
+    }
+
+    private static String hash(List<String> chunk) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String review : chunk) {
+                digest.update(review.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
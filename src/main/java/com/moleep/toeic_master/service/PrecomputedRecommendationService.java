@@ -0,0 +1,136 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.entity.RecommendationType;
+import com.moleep.toeic_master.repository.UserRecommendationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * 야간 배치가 계산한 추천 목록(user_recommendations)의 저장과 조회.
+ * 요청 경로에서는 목록을 현재 필터로 거른 뒤 topK개가 남을 때만 사용하고, 아니면 호출자가 온라인 검색으로 대체한다.
+ */
+@Service
+public class PrecomputedRecommendationService {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO user_recommendations (user_id, type, item_ids, embedding_hash, computed_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, type) DO UPDATE
+            SET item_ids = EXCLUDED.item_ids, embedding_hash = EXCLUDED.embedding_hash, computed_at = EXCLUDED.computed_at
+            """;
+
+    private final UserRecommendationRepository userRecommendationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long maxAgeHours;
+
+    private final Map<RecommendationType, Counter> used = new EnumMap<>(RecommendationType.class);
+    private final Map<RecommendationType, Counter> insufficient = new EnumMap<>(RecommendationType.class);
+    private final Map<RecommendationType, Counter> missing = new EnumMap<>(RecommendationType.class);
+
+    /**
+     * 한 사용자의 계산 결과. embeddingHash는 fingerprint(정규화된 성향 임베딩)
+     */
+    public record Row(Long userId, RecommendationType type, long[] itemIds, int embeddingHash) {}
+
+    public PrecomputedRecommendationService(UserRecommendationRepository userRecommendationRepository,
+                                            JdbcTemplate jdbcTemplate,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${recommendation.precompute.enabled:true}") boolean enabled,
+                                            @Value("${recommendation.precompute.max-age-hours:36}") long maxAgeHours) {
+        this.userRecommendationRepository = userRecommendationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxAgeHours = maxAgeHours;
+        for (RecommendationType type : RecommendationType.values()) {
+            String tag = type.name().toLowerCase();
+            used.put(type, Counter.builder("recommendation.precomputed.requests")
+                    .tag("kind", tag).tag("result", "used").register(meterRegistry));
+            insufficient.put(type, Counter.builder("recommendation.precomputed.requests")
+                    .tag("kind", tag).tag("result", "insufficient").register(meterRegistry));
+            missing.put(type, Counter.builder("recommendation.precomputed.requests")
+                    .tag("kind", tag).tag("result", "missing").register(meterRegistry));
+        }
+    }
+
+    /**
+     * 미리 계산된 목록을 liveFilter(현재 모집 상태/필터 적용, 최대 topK개)로 거른 결과.
+     * 목록이 없거나, 성향이 바뀌었거나, max-age-hours보다 오래됐거나, topK개가 남지 않으면 null
+     */
+    public long[] resolve(Long userId, RecommendationType type, float[] userEmbedding, int topK,
+                          UnaryOperator<long[]> liveFilter) {
+        if (!enabled) {
+            return null;
+        }
+        LocalDateTime oldest = LocalDateTime.now().minusHours(maxAgeHours);
+        long[] candidates = userRecommendationRepository.findByUserIdAndType(userId, type)
+                .filter(row -> row.getEmbeddingHash() == fingerprint(userEmbedding))
+                .filter(row -> row.getComputedAt().isAfter(oldest))
+                .map(row -> decode(row.getItemIds()))
+                .orElse(null);
+        if (candidates == null) {
+            missing.get(type).increment();
+            return null;
+        }
+        long[] ids = liveFilter.apply(candidates);
+        if (ids.length < topK) {
+            insufficient.get(type).increment();
+            return null;
+        }
+        used.get(type).increment();
+        return ids;
+    }
+
+    /**
+     * (user_id, type)마다 한 행으로 덮어쓴다. computedAt은 이번 배치 시작 시각
+     */
+    public void saveAll(List<Row> rows, LocalDateTime computedAt) {
+        Timestamp timestamp = Timestamp.valueOf(computedAt);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (statement, row) -> {
+            statement.setLong(1, row.userId());
+            statement.setString(2, row.type().name());
+            statement.setBytes(3, encode(row.itemIds()));
+            statement.setInt(4, row.embeddingHash());
+            statement.setTimestamp(5, timestamp);
+        });
+    }
+
+    /**
+     * computedAt 이전에 계산된 행 삭제 (이번 배치에서 빠진 사용자, 즉 임베딩이 사라진 사용자)
+     */
+    public int deleteComputedBefore(LocalDateTime computedAt) {
+        return userRecommendationRepository.deleteComputedBefore(computedAt);
+    }
+
+    /**
+     * 정규화된 성향 임베딩의 지문. 같은 저장값을 디코딩/정규화하면 항상 같은 값이 나온다.
+     */
+    public static int fingerprint(float[] normalizedEmbedding) {
+        return Arrays.hashCode(normalizedEmbedding);
+    }
+
+    private static byte[] encode(long[] ids) {
+        ByteBuffer buffer = ByteBuffer.allocate(ids.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(ids);
+        return buffer.array();
+    }
+
+    private static long[] decode(byte[] bytes) {
+        long[] ids = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,169 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.entity.RecommendationType;
+import com.moleep.toeic_master.repository.UserEmbeddingRepository;
+import com.moleep.toeic_master.repository.UserEmbeddingView;
+import com.moleep.toeic_master.vector.EmbeddingMatrix;
+import com.moleep.toeic_master.vector.TopKSelector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 임베딩이 있는 모든 사용자의 스터디/학교 추천 상위 top-n개를 야간에 미리 계산해 user_recommendations에 기록한다.
+ * 사용자를 page-size명씩 읽어 메모리 캐시의 행렬과 블록 단위 전수 계산(BlockedTopK)을 하며,
+ * 여러 인스턴스 중 advisory lock을 잡은 하나만 실행한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationPrecomputeJob {
+
+    // pg_try_advisory_lock 키 ("RECO")
+    private static final long LOCK_KEY = 0x5245434FL;
+
+    private final UserEmbeddingRepository userEmbeddingRepository;
+    private final EmbeddingService embeddingService;
+    private final StudyEmbeddingCache studyEmbeddingCache;
+    private final SchoolEmbeddingCache schoolEmbeddingCache;
+    private final PrecomputedRecommendationService precomputedRecommendationService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${recommendation.precompute.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recommendation.precompute.top-n:100}")
+    private int topN;
+
+    @Value("${recommendation.precompute.page-size:1024}")
+    private int pageSize;
+
+    // 0이면 코어 수
+    @Value("${recommendation.precompute.parallelism:0}")
+    private int parallelism;
+
+    @Value("${ai.embedding.dimension:768}")
+    private int dimension;
+
+    @Scheduled(cron = "${recommendation.precompute.cron:0 0 4 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        if (!studyEmbeddingCache.isWarmedUp() || !schoolEmbeddingCache.isWarmedUp()) {
+            log.warn("Skipping recommendation precompute: embedding caches are not warmed up");
+            return;
+        }
+        // 세션 단위 락이므로 작업이 끝날 때까지 같은 연결을 붙잡고 있음 (기록은 다른 연결로)
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?)")) {
+                return false;
+            }
+            try {
+                materialize();
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(?)");
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(ran)) {
+            log.info("Recommendation precompute is running on another instance");
+        }
+    }
+
+    private void materialize() {
+        long start = System.currentTimeMillis();
+        // DB 타임스탬프 정밀도(마이크로초)에서 잘려도 이번 배치 행이 computedAt보다 이전이 되지 않도록 밀리초로 맞춤
+        LocalDateTime computedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        boolean studies = matchesDimension(studyEmbeddingCache.snapshot(), "study");
+        boolean schools = matchesDimension(schoolEmbeddingCache.snapshot(), "school");
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        int users = 0;
+        try {
+            long afterId = 0L;
+            List<UserEmbeddingView> page;
+            while (!(page = userEmbeddingRepository.findEmbeddingViewsAfter(afterId, PageRequest.of(0, pageSize))).isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+                users += materializePage(page, studies, schools, pool, computedAt);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        int removed = precomputedRecommendationService.deleteComputedBefore(computedAt);
+        log.info("Precomputed recommendations for {} users ({} stale rows removed) in {} ms",
+                users, removed, System.currentTimeMillis() - start);
+    }
+
+    private int materializePage(List<UserEmbeddingView> page, boolean studies, boolean schools,
+                                ForkJoinPool pool, LocalDateTime computedAt) {
+        // 정규화된 성향 벡터를 한 배열에 이어 붙여 질의 블록으로 사용
+        float[] queries = new float[page.size() * dimension];
+        long[] userIds = new long[page.size()];
+        int[] hashes = new int[page.size()];
+        int count = 0;
+        for (UserEmbeddingView view : page) {
+            float[] embedding = EmbeddingMatrix.normalize(embeddingService.bytesToFloatArray(view.getEmbedding()));
+            if (embedding == null || embedding.length != dimension) {
+                continue;
+            }
+            System.arraycopy(embedding, 0, queries, count * dimension, dimension);
+            userIds[count] = view.getId();
+            hashes[count] = PrecomputedRecommendationService.fingerprint(embedding);
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        List<PrecomputedRecommendationService.Row> rows = new ArrayList<>(count * 2);
+        if (studies) {
+            addRows(rows, RecommendationType.STUDY, userIds, hashes,
+                    studyEmbeddingCache.searchAll(queries, count, topN, pool));
+        }
+        if (schools) {
+            addRows(rows, RecommendationType.SCHOOL, userIds, hashes,
+                    schoolEmbeddingCache.searchAll(queries, count, topN, pool));
+        }
+        precomputedRecommendationService.saveAll(rows, computedAt);
+        return count;
+    }
+
+    private static void addRows(List<PrecomputedRecommendationService.Row> rows, RecommendationType type,
+                                long[] userIds, int[] hashes, TopKSelector[] results) {
+        for (int i = 0; i < results.length; i++) {
+            rows.add(new PrecomputedRecommendationService.Row(userIds[i], type, results[i].sortedIds(), hashes[i]));
+        }
+    }
+
+    private boolean matchesDimension(EmbeddingMatrix.Snapshot snapshot, String name) {
+        if (!snapshot.isEmpty() && snapshot.dimension() != dimension) {
+            log.warn("Skipping {} recommendations: index dimension {} != {}", name, snapshot.dimension(), dimension);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+}
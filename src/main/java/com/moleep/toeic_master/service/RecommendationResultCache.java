@@ -0,0 +1,175 @@
+package com.moleep.toeic_master.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 사용자별 추천 결과(정렬된 id 목록) 캐시. 키에 사용자 임베딩 버전과 스터디/학교 인덱스 버전이 들어가므로
+ * 둘 중 하나라도 바뀌면 자연히 다른 키가 되어 다시 검색한다.
+ * 응답 대신 id만 보관하므로 멤버 수 같은 값은 매번 DB에서 새로 채워진다.
+ */
+@Component
+public class RecommendationResultCache {
+
+    public enum Kind {
+        STUDY, SCHOOL
+    }
+
+    /**
+     * 검색 조건과 검색 시점의 버전. 인덱스 버전은 검색 전에 읽은 값이어야 한다.
+     */
+    public record Key(Kind kind, long userVersion, long indexVersion,
+                      String examType, String region, Integer minScore, Integer maxScore, int topK) {
+
+        public static Key study(long userVersion, long indexVersion,
+                                String examType, String region, Integer minScore, Integer maxScore, int topK) {
+            return new Key(Kind.STUDY, userVersion, indexVersion, examType, region, minScore, maxScore, topK);
+        }
+
+        public static Key school(long userVersion, long indexVersion, int topK) {
+            return new Key(Kind.SCHOOL, userVersion, indexVersion, null, null, null, null, topK);
+        }
+
+        /**
+         * 같은 종류이면서 버전이 other보다 오래된 키
+         */
+        boolean isOlderThan(Key other) {
+            return kind == other.kind
+                    && (userVersion < other.userVersion || indexVersion < other.indexVersion);
+        }
+    }
+
+    // 항목 하나의 대략적인 고정 크기 (키 객체, 맵 노드, 배열 헤더)
+    private static final long ENTRY_OVERHEAD_BYTES = 160;
+
+    private final boolean enabled;
+    private final int maxUsers;
+    private final int maxPerUser;
+    private final Map<Long, Map<Key, long[]>> entries;
+
+    // entries 잠금 안에서만 변경
+    private long entryCount;
+    private long estimatedBytes;
+
+    private final Map<Kind, Counter> hits = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> misses = new EnumMap<>(Kind.class);
+
+    public RecommendationResultCache(@Value("${recommendation.result-cache.enabled:true}") boolean enabled,
+                                     @Value("${recommendation.result-cache.max-users:10000}") int maxUsers,
+                                     @Value("${recommendation.result-cache.max-per-user:4}") int maxPerUser,
+                                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxUsers = maxUsers;
+        this.maxPerUser = maxPerUser;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Map<Key, long[]>> eldest) {
+                if (size() <= RecommendationResultCache.this.maxUsers) {
+                    return false;
+                }
+                eldest.getValue().values().forEach(RecommendationResultCache.this::released);
+                return true;
+            }
+        };
+        for (Kind kind : Kind.values()) {
+            String tag = kind.name().toLowerCase();
+            hits.put(kind, Counter.builder("recommendation.cache.requests")
+                    .tag("kind", tag).tag("result", "hit").register(meterRegistry));
+            misses.put(kind, Counter.builder("recommendation.cache.requests")
+                    .tag("kind", tag).tag("result", "miss").register(meterRegistry));
+        }
+        Gauge.builder("recommendation.cache.size", this, RecommendationResultCache::size).register(meterRegistry);
+        Gauge.builder("recommendation.cache.estimated.bytes", this, RecommendationResultCache::estimatedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 같은 키의 결과가 있으면 그 복사본을, 없으면 loader로 검색해 보관한 뒤 반환한다.
+     */
+    public long[] get(Long userId, Key key, Supplier<long[]> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long[] cached;
+        synchronized (entries) {
+            Map<Key, long[]> userEntries = entries.get(userId);
+            cached = userEntries != null ? userEntries.get(key) : null;
+        }
+        if (cached != null) {
+            hits.get(key.kind()).increment();
+            return cached.clone();
+        }
+
+        misses.get(key.kind()).increment();
+        long[] ids = loader.get();
+        put(userId, key, ids.clone());
+        return ids;
+    }
+
+    private void put(Long userId, Key key, long[] ids) {
+        synchronized (entries) {
+            Map<Key, long[]> userEntries = entries.computeIfAbsent(userId, id -> newUserEntries());
+            // 버전이 지난 항목은 다시 쓰일 일이 없으므로 정리. 늦게 끝난 이전 버전의 검색이면 넣지 않음
+            for (Iterator<Map.Entry<Key, long[]>> it = userEntries.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Key, long[]> entry = it.next();
+                if (key.isOlderThan(entry.getKey())) {
+                    return;
+                }
+                if (entry.getKey().isOlderThan(key)) {
+                    released(entry.getValue());
+                    it.remove();
+                }
+            }
+            long[] previous = userEntries.put(key, ids);
+            if (previous != null) {
+                released(previous);
+            }
+            entryCount++;
+            estimatedBytes += bytesOf(ids);
+        }
+    }
+
+    public long size() {
+        synchronized (entries) {
+            return entryCount;
+        }
+    }
+
+    public long estimatedBytes() {
+        synchronized (entries) {
+            return estimatedBytes;
+        }
+    }
+
+    private Map<Key, long[]> newUserEntries() {
+        return new LinkedHashMap<>(4, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest) {
+                if (size() <= maxPerUser) {
+                    return false;
+                }
+                released(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    private void released(long[] ids) {
+        entryCount--;
+        estimatedBytes -= bytesOf(ids);
+    }
+
+    private static long bytesOf(long[] ids) {
+        return ENTRY_OVERHEAD_BYTES + (long) ids.length * Long.BYTES;
+    }
+}
@@ -15,6 +15,7 @@ import com.moleep.toeic_master.repository.ReviewLikeRepository;
 import com.moleep.toeic_master.repository.ReviewRepository;
 import com.moleep.toeic_master.repository.SchoolRepository;
 import com.moleep.toeic_master.repository.UserRepository;
+import com.moleep.toeic_master.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -35,9 +36,10 @@ public class ReviewService {
     private final ReviewLikeRepository reviewLikeRepository;
     private final SchoolRepository schoolRepository;
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
     private final S3Service s3Service;
     private final ScoreService scoreService;
-    private final SchoolEmbeddingAsyncService schoolEmbeddingAsyncService;
+    private final SchoolEvaluationScheduler schoolEvaluationScheduler;
 
     @Transactional(readOnly = true)
     public Page<ReviewResponse> getReviewsBySchool(Long schoolId, Long currentUserId, Pageable pageable) {
@@ -106,8 +108,8 @@ public class ReviewService {
         // 리뷰 작성 점수 지급
         scoreService.addScore(userId, ScoreType.WRITE_REVIEW, review.getId());
 
-        // 학교 임베딩 비동기 업데이트
-        schoolEmbeddingAsyncService.updateSchoolEmbeddingAsync(schoolId);
+        // 학교 평가/임베딩 재생성 예약 (학교별로 모아서 처리)
+        schoolEvaluationScheduler.markDirty(schoolId);
 
         return toReviewResponse(review, userId);
     }
@@ -130,8 +132,8 @@ public class ReviewService {
 
         review.getSchool().updateAvgRating();
 
-        // 학교 임베딩 비동기 업데이트
-        schoolEmbeddingAsyncService.updateSchoolEmbeddingAsync(review.getSchool().getId());
+        // 학교 평가/임베딩 재생성 예약 (학교별로 모아서 처리)
+        schoolEvaluationScheduler.markDirty(review.getSchool().getId());
 
         return toReviewResponse(review, userId);
     }
@@ -147,7 +149,7 @@ public class ReviewService {
 
         // S3에서 이미지 삭제
         for (ReviewImage image : review.getImages()) {
-            s3Service.delete(image.getImageKey());
+            s3Service.deleteAfterCommit(image.getImageKey());
         }
 
         // 관련 좋아요 먼저 삭제
@@ -159,8 +161,8 @@ public class ReviewService {
         reviewRepository.delete(review);
         school.updateAvgRating();
 
-        // 학교 임베딩 비동기 업데이트
-        schoolEmbeddingAsyncService.updateSchoolEmbeddingAsync(schoolId);
+        // 학교 평가/임베딩 재생성 예약 (학교별로 모아서 처리)
+        schoolEvaluationScheduler.markDirty(schoolId);
     }
 
     @Transactional
@@ -215,7 +217,7 @@ public class ReviewService {
             throw new CustomException("이미지 삭제 권한이 없습니다", HttpStatus.FORBIDDEN);
         }
 
-        s3Service.delete(image.getImageKey());
+        s3Service.deleteAfterCommit(image.getImageKey());
         image.getReview().getImages().remove(image);
         reviewImageRepository.delete(image);
     }
@@ -225,8 +227,9 @@ public class ReviewService {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new CustomException("리뷰를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new CustomException("사용자를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
+        // 존재 확인은 캐시로, 좋아요에는 외래 키용 참조만 필요
+        userPrincipalCache.get(userId);
+        User user = userRepository.getReferenceById(userId);
 
         if (reviewLikeRepository.existsByReviewIdAndUserId(reviewId, userId)) {
             throw new CustomException("이미 좋아요를 눌렀습니다", HttpStatus.BAD_REQUEST);
@@ -1,10 +1,14 @@
 package com.moleep.toeic_master.service;
 
+import com.moleep.toeic_master.config.AsyncExecutors;
 import com.moleep.toeic_master.exception.CustomException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -23,10 +27,12 @@ import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class S3Service {
 
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
+    private final AsyncExecutors asyncExecutors;
 
     @Value("${cloud.aws.s3.bucket}")
     private String bucket;
@@ -72,6 +78,30 @@ public class S3Service {
         }
     }
 
+    /**
+     * 트랜잭션 커밋 후 s3-cleanup 실행기에서 삭제 (롤백되면 삭제하지 않음)
+     * 삭제 실패는 로그만 남긴다.
+     */
+    public void deleteAfterCommit(String key) {
+        Runnable cleanup = () -> asyncExecutors.s3Cleanup().execute(() -> {
+            try {
+                delete(key);
+            } catch (Exception e) {
+                log.warn("Failed to delete S3 object {}", key, e);
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cleanup.run();
+                }
+            });
+        } else {
+            cleanup.run();
+        }
+    }
+
     /**
      * Presigned URL 생성 (비공개 버킷용)
      * 설정된 시간 동안만 유효한 임시 접근 URL 반환
@@ -1,13 +1,16 @@
 package com.moleep.toeic_master.service;
 
-import com.moleep.toeic_master.entity.Review;
-import com.moleep.toeic_master.entity.School;
+import com.moleep.toeic_master.entity.SchoolEmbedding;
+import com.moleep.toeic_master.repository.ReviewContentView;
+import com.moleep.toeic_master.repository.ReviewRepository;
+import com.moleep.toeic_master.repository.SchoolEmbeddingRepository;
 import com.moleep.toeic_master.repository.SchoolRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -17,38 +20,63 @@ import java.util.List;
 public class SchoolEmbeddingAsyncService {
 
     private final SchoolRepository schoolRepository;
+    private final SchoolEmbeddingRepository schoolEmbeddingRepository;
+    private final ReviewRepository reviewRepository;
     private final EmbeddingService embeddingService;
+    private final IncrementalVenueEvaluator incrementalVenueEvaluator;
     private final SchoolEmbeddingCache schoolEmbeddingCache;
+    private final EmbeddingChangeFeed embeddingChangeFeed;
+    private final PlatformTransactionManager transactionManager;
 
-    @Async
-    @Transactional
-    public void updateSchoolEmbeddingAsync(Long schoolId) {
+    @Value("${venue-eval.incremental:false}")
+    private boolean incremental;
+
+    /**
+     * 학교의 전체 리뷰로 평가와 임베딩을 다시 생성. SchoolEvaluationScheduler가 학교별로 모아 호출한다.
+     * AI 서버 호출은 트랜잭션 밖에서 하고, 결과만 짧은 트랜잭션으로 기록한다.
+     */
+    public void updateSchoolEmbedding(Long schoolId) {
         try {
-            School school = schoolRepository.findById(schoolId).orElse(null);
-            if (school == null) {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            List<ReviewContentView> reviews = readOnly.execute(status -> {
+                if (!schoolRepository.existsById(schoolId)) {
+                    return null;
+                }
+                return reviewRepository.findContentViewsBySchoolId(schoolId).stream()
+                        .filter(review -> review.getContent() != null && !review.getContent().isBlank())
+                        .toList();
+            });
+            if (reviews == null) {
                 log.warn("School not found for embedding update: {}", schoolId);
                 return;
             }
 
-            List<String> reviewContents = school.getReviews().stream()
-                    .map(Review::getContent)
-                    .filter(content -> content != null && !content.isBlank())
-                    .toList();
-
-            if (reviewContents.isEmpty()) {
-                school.setEvaluation(null);
-                school.setEmbedding(null);
+            if (reviews.isEmpty()) {
+                write(schoolId, null, null);
+                incrementalVenueEvaluator.clear(schoolId);
                 schoolEmbeddingCache.remove(schoolId);
                 log.info("Cleared embedding for school {} (no reviews)", schoolId);
                 return;
             }
 
-            EmbeddingService.VenueEvalResult result = embeddingService.getVenueEvaluation(reviewContents);
+            List<String> reviewContents = reviews.stream().map(ReviewContentView::getContent).toList();
+            EmbeddingService.VenueEvalResult result = null;
+            if (incremental) {
+                result = incrementalVenueEvaluator.evaluate(schoolId, reviews);
+                if (result == null) {
+                    // 청크 평가나 /venue/combine이 실패하면 전체 리뷰로 한 번에 평가
+                    log.warn("Incremental evaluation failed for school {}, falling back to full evaluation", schoolId);
+                }
+            }
+            if (result == null) {
+                result = embeddingService.getVenueEvaluation(reviewContents);
+            }
             if (result != null) {
-                school.setEvaluation(result.evaluation());
-                school.setEmbedding(embeddingService.floatArrayToBytes(result.embedding()));
-                schoolEmbeddingCache.put(schoolId, result.embedding());
-                log.info("Updated embedding for school {} with {} reviews", schoolId, reviewContents.size());
+                if (write(schoolId, result.evaluation(), embeddingService.floatArrayToBytes(result.embedding()))) {
+                    schoolEmbeddingCache.put(schoolId, result.embedding());
+                    log.info("Updated embedding for school {} with {} reviews", schoolId, reviewContents.size());
+                }
             } else {
                 log.warn("Failed to get embedding for school {}", schoolId);
             }
@@ -56,4 +84,24 @@ public class SchoolEmbeddingAsyncService {
             log.error("Error updating school embedding for school {}", schoolId, e);
         }
     }
+
+    private boolean write(Long schoolId, String evaluation, byte[] embedding) {
+        Boolean written = new TransactionTemplate(transactionManager).execute(status ->
+                schoolRepository.findById(schoolId)
+                        .map(school -> {
+                            school.setEvaluation(evaluation);
+                            if (embedding != null) {
+                                schoolEmbeddingRepository.save(SchoolEmbedding.builder()
+                                        .schoolId(schoolId).embedding(embedding).build());
+                            } else {
+                                schoolEmbeddingRepository.deleteById(schoolId);
+                            }
+                            // 임베딩은 별도 테이블이므로 catch-up 기준 시각을 직접 갱신
+                            school.setEmbeddingVersion(System.currentTimeMillis());
+                            embeddingChangeFeed.publish(EmbeddingChangeFeed.Kind.SCHOOL, schoolId);
+                            return true;
+                        })
+                        .orElse(false));
+        return Boolean.TRUE.equals(written);
+    }
 }
@@ -1,62 +1,283 @@
 package com.moleep.toeic_master.service;
 
-import com.moleep.toeic_master.entity.School;
+import com.moleep.toeic_master.repository.SchoolEmbeddingView;
 import com.moleep.toeic_master.repository.SchoolRepository;
+import com.moleep.toeic_master.vector.BlockedTopK;
+import com.moleep.toeic_master.vector.EmbeddingIndex;
+import com.moleep.toeic_master.vector.EmbeddingMatrix;
+import com.moleep.toeic_master.vector.EmbeddingSnapshotFile;
+import com.moleep.toeic_master.vector.TopKSelector;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class SchoolEmbeddingCache {
 
+    private static final String SNAPSHOT_NAME = "school";
+    private static final int WARMUP_CHUNK_SIZE = 1024;
+
     private final SchoolRepository schoolRepository;
     private final EmbeddingService embeddingService;
+    private final EmbeddingIndex.Options indexOptions;
+    private final EmbeddingSnapshotStore snapshotStore;
+    private final PlatformTransactionManager transactionManager;
+
+    // 정규화된 임베딩 행렬 + HNSW 그래프
+    private EmbeddingIndex index;
+
+    // 마지막으로 파일에 기록한 스냅샷. 변경이 없으면 다시 쓰지 않음
+    private volatile EmbeddingMatrix.Snapshot savedSnapshot;
+
+    // 적재 전의 빈 행렬로 기존 스냅샷 파일을 덮어쓰지 않도록 구분
+    private volatile boolean warmedUp;
 
-    private final Map<Long, float[]> cache = new ConcurrentHashMap<>();
+    // 이 시각(epoch ms) 이전의 변경은 반영됨. catchUp이 여기서부터 다시 확인
+    private volatile long caughtUpTo;
+
+    // 임베딩이 바뀔 때마다 증가 (추천 결과 캐시 무효화 기준)
+    private final AtomicLong version = new AtomicLong();
 
     @PostConstruct
     public void init() {
-        loadAllEmbeddings();
+        index = new EmbeddingIndex(SNAPSHOT_NAME, indexOptions);
     }
 
-    private void loadAllEmbeddings() {
-        log.info("Loading school embeddings into cache...");
-        List<School> schools = schoolRepository.findAll();
-        int count = 0;
-        for (School school : schools) {
-            if (school.getEmbedding() != null) {
-                float[] embedding = embeddingService.bytesToFloatArray(school.getEmbedding());
-                if (embedding != null) {
-                    cache.put(school.getId(), embedding);
-                    count++;
+    /**
+     * 스냅샷 파일(없으면 DB 스트리밍)로 캐시를 채우고 그 사이 변경된 학교를 다시 반영한다.
+     * 기동 후 EmbeddingCacheWarmer가 백그라운드에서 호출한다.
+     */
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        EmbeddingSnapshotFile.Mapped mapped = snapshotStore.load(SNAPSHOT_NAME);
+        int loaded;
+        long replayFrom;
+        if (mapped != null) {
+            loaded = restoreSnapshot(mapped);
+            replayFrom = snapshotStore.replayFrom(mapped.highWater());
+        } else {
+            loaded = streamAllEmbeddings();
+            replayFrom = snapshotStore.replayFrom(start);
+        }
+
+        List<SchoolEmbeddingView> changed = schoolRepository.findWithEmbeddingChangedSince(replayFrom);
+        changed.forEach(this::put);
+        index.rebuildAsync();
+        caughtUpTo = start;
+        warmedUp = true;
+        log.info("Warmed up {} school embeddings ({} from {}, {} replayed) in {} ms",
+                size(), loaded, mapped != null ? "snapshot" : "database", changed.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    private int restoreSnapshot(EmbeddingSnapshotFile.Mapped mapped) {
+        Set<Long> schoolIds = new HashSet<>(schoolRepository.findIdsWithEmbedding());
+
+        // 스냅샷 이후 삭제되었거나 임베딩이 없어진 학교는 건너뜀
+        int restored = 0;
+        for (int row = 0; row < mapped.count(); row++) {
+            long schoolId = mapped.ids()[row];
+            if (schoolIds.contains(schoolId)) {
+                index.put(schoolId, mapped.vector(row));
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * (id, 임베딩) 프로젝션을 서버 측 커서로 읽어 청크 단위로 병렬 디코딩한다.
+     * School 엔티티와 reviews 컬렉션을 만들지 않는다.
+     */
+    private int streamAllEmbeddings() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Integer count = transaction.execute(status -> {
+            int loaded = 0;
+            try (Stream<SchoolEmbeddingView> rows = schoolRepository.streamEmbeddingViews()) {
+                List<SchoolEmbeddingView> chunk = new ArrayList<>(WARMUP_CHUNK_SIZE);
+                Iterator<SchoolEmbeddingView> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == WARMUP_CHUNK_SIZE || !iterator.hasNext()) {
+                        loaded += putChunk(chunk);
+                        chunk.clear();
+                    }
                 }
             }
+            return loaded;
+        });
+        return count != null ? count : 0;
+    }
+
+    private int putChunk(List<SchoolEmbeddingView> chunk) {
+        float[][] embeddings = new float[chunk.size()][];
+        IntStream.range(0, chunk.size()).parallel()
+                .forEach(i -> embeddings[i] = embeddingService.bytesToFloatArray(chunk.get(i).getEmbedding()));
+        int count = 0;
+        for (int i = 0; i < embeddings.length; i++) {
+            if (embeddings[i] != null) {
+                index.put(chunk.get(i).getId(), embeddings[i]);
+                count++;
+            }
         }
-        log.info("Loaded {} school embeddings into cache", count);
+        return count;
     }
 
     public void put(Long schoolId, float[] embedding) {
         if (embedding != null) {
-            cache.put(schoolId, embedding);
+            index.put(schoolId, embedding);
+            version.incrementAndGet();
         }
     }
 
+    private void put(SchoolEmbeddingView view) {
+        float[] embedding = embeddingService.bytesToFloatArray(view.getEmbedding());
+        if (embedding != null) {
+            put(view.getId(), embedding);
+        } else if (index.rowOf(view.getId()) >= 0) {
+            remove(view.getId());
+        }
+    }
+
+    /**
+     * DB의 현재 상태로 한 학교를 다시 반영 (다른 인스턴스의 변경 알림 수신 시)
+     */
+    public void refresh(Long schoolId) {
+        schoolRepository.findEmbeddingViewById(schoolId).ifPresentOrElse(this::put, () -> remove(schoolId));
+    }
+
+    /**
+     * 마지막 확인 이후 embedding_version이 바뀐 학교를 다시 반영한다. 놓친 변경 알림을 보완하며 반영한 수를 반환.
+     * 삭제된 학교는 embedding_version으로 찾을 수 없으므로, reconcile이면 DB에 임베딩이 없는 캐시 항목도 지운다.
+     */
+    public int catchUp(boolean reconcile) {
+        if (!warmedUp) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        // 목록을 읽기 전에 잡은 스냅샷이므로, 그 사이 새로 들어온 학교를 지우지 않음
+        EmbeddingMatrix.Snapshot before = index.snapshot();
+        List<SchoolEmbeddingView> changed =
+                schoolRepository.findWithEmbeddingChangedSince(snapshotStore.replayFrom(caughtUpTo));
+        changed.forEach(this::put);
+        int removed = reconcile ? removeMissing(before, new HashSet<>(schoolRepository.findIdsWithEmbedding())) : 0;
+        caughtUpTo = now;
+        return changed.size() + removed;
+    }
+
+    private int removeMissing(EmbeddingMatrix.Snapshot before, Set<Long> ids) {
+        int removed = 0;
+        for (int row = 0; row < before.rows(); row++) {
+            if (before.isLive(row) && !ids.contains(before.id(row))) {
+                remove(before.id(row));
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 정규화된 임베딩 복사본 반환
+     */
     public float[] get(Long schoolId) {
-        return cache.get(schoolId);
+        return index.get(schoolId);
     }
 
     public void remove(Long schoolId) {
-        cache.remove(schoolId);
+        index.remove(schoolId);
+        version.incrementAndGet();
     }
 
-    public Map<Long, float[]> getAll() {
-        return cache;
+    /**
+     * 스캔용 스냅샷. 이후의 put/remove와 무관하게 일관된 뷰를 제공
+     */
+    public EmbeddingMatrix.Snapshot snapshot() {
+        return index.snapshot();
+    }
+
+    /**
+     * query(정규화된 벡터)와 가장 유사한 상위 k개. 데이터가 적거나 그래프 재구축 중이면 전수 검색
+     */
+    public TopKSelector search(float[] query, int k) {
+        return index.search(query, k);
+    }
+
+    /**
+     * 모든 학교를 대상으로 여러 질의(정규화된 벡터를 이어 붙인 배열)의 상위 k개를 한 번에 전수 계산
+     */
+    public TopKSelector[] searchAll(float[] queries, int queryCount, int k, ForkJoinPool pool) {
+        return BlockedTopK.search(index.snapshot(), queries, queryCount, k, null, pool);
+    }
+
+    /**
+     * ids 중 아직 캐시에 임베딩이 있는 학교를 순서대로 최대 limit개
+     */
+    public long[] retainPresent(long[] ids, int limit) {
+        return Arrays.stream(ids)
+                .filter(id -> index.rowOf(id) >= 0)
+                .limit(Math.max(0, limit))
+                .toArray();
+    }
+
+    /**
+     * 현재 검색 경로(HNSW/int8)의 recall@k를 float 전수 검색 대비로 측정
+     */
+    public double sampleRecall(int samples, int k) {
+        return index.sampleRecall(samples, k);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 검색 결과에 영향을 주는 변경이 반영될 때마다 증가하는 값. 검색 전에 읽어 결과와 함께 보관한다.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    /**
+     * 현재 행렬을 스냅샷 파일로 기록. 종료 시와 주기적으로 호출된다.
+     */
+    @Scheduled(fixedDelayString = "${embedding.snapshot.interval-ms:600000}",
+            initialDelayString = "${embedding.snapshot.interval-ms:600000}")
+    @PreDestroy
+    public void saveSnapshot() {
+        if (!warmedUp) {
+            return;
+        }
+        // 읽기 전 시각을 기록해야 이후의 변경이 다음 기동 때 재적용 대상에 포함됨
+        long highWater = System.currentTimeMillis();
+        EmbeddingMatrix.Snapshot snapshot = index.snapshot();
+        if (snapshot == savedSnapshot) {
+            return;
+        }
+        if (snapshotStore.save(SNAPSHOT_NAME, snapshot, highWater)) {
+            savedSnapshot = snapshot;
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.config.AsyncExecutors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 리뷰 변경으로 인한 학교 평가(LLM) 재생성 요청을 학교별로 모은다.
+ * 마지막 요청 후 quiet-window-ms 동안 조용하거나, 첫 요청 후 max-staleness-ms가 지나면 한 번만 평가한다.
+ * 학교당 동시에 하나의 평가만 진행하며, 진행 중에 들어온 요청은 다음 평가로 합쳐진다.
+ * <p>
+ * 모아 둔 요청은 인스턴스 메모리에만 있는 최선 노력(best effort) 상태다. 요청을 받은 인스턴스가 평가하며,
+ * 평가 전에 종료되면 그 요청은 사라지고 해당 학교의 다음 리뷰 변경 때 다시 평가된다.
+ * 여러 인스턴스가 같은 학교를 모아 두었으면 schools.evaluating_until 임대(lease)를 먼저 잡은 하나만 평가하고,
+ * 나머지는 요청을 다시 넣어 그 평가가 끝난 뒤에 평가한다. 임대는 짧은 UPDATE 한 번으로 잡고 풀므로
+ * AI 서버 호출 동안 DB 연결을 붙잡지 않으며, 평가 중 인스턴스가 죽으면 lease-ms 뒤에 풀린다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchoolEvaluationScheduler {
+
+    private final SchoolEmbeddingAsyncService schoolEmbeddingAsyncService;
+    private final AsyncExecutors asyncExecutors;
+    private final AiServerClient aiServerClient;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${venue-eval.quiet-window-ms:30000}")
+    private long quietWindowMs;
+
+    @Value("${venue-eval.max-staleness-ms:300000}")
+    private long maxStalenessMs;
+
+    // 평가 한 번(청크 평가와 합치기 포함)보다 넉넉하게
+    @Value("${venue-eval.lease-ms:600000}")
+    private long leaseMs;
+
+    private final Map<Long, Dirty> dirtySchools = new ConcurrentHashMap<>();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private record Dirty(long firstAt, long lastAt) {}
+
+    /**
+     * 학교 평가 재생성 요청. 트랜잭션 안이면 커밋 후에 등록된다.
+     */
+    public void markDirty(Long schoolId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(schoolId);
+                }
+            });
+        } else {
+            record(schoolId);
+        }
+    }
+
+    private void record(Long schoolId) {
+        long now = System.currentTimeMillis();
+        dirtySchools.merge(schoolId, new Dirty(now, now), (previous, next) -> new Dirty(previous.firstAt(), now));
+    }
+
+    @Scheduled(fixedDelayString = "${venue-eval.tick-ms:1000}")
+    public void dispatchDue() {
+        // AI 서버 서킷이 열려 있으면 요청을 그대로 두고 다음 틱에 다시 확인
+        if (!aiServerClient.isAvailable(AiServerClient.Endpoint.VENUE_EVAL)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Dirty> entry : dirtySchools.entrySet()) {
+            Long schoolId = entry.getKey();
+            Dirty dirty = entry.getValue();
+            boolean quiet = now - dirty.lastAt() >= quietWindowMs;
+            boolean stale = now - dirty.firstAt() >= maxStalenessMs;
+            if (!(quiet || stale) || inFlight.contains(schoolId)) {
+                continue;
+            }
+            // 확인 이후 새 요청이 합쳐졌으면 이번 틱에서는 건너뜀
+            if (!dirtySchools.remove(schoolId, dirty)) {
+                continue;
+            }
+            inFlight.add(schoolId);
+            try {
+                asyncExecutors.venueEval().execute(() -> evaluate(schoolId));
+            } catch (RejectedExecutionException e) {
+                // 실행기 대기열이 가득 차면 다음 틱에 다시 시도
+                inFlight.remove(schoolId);
+                dirtySchools.merge(schoolId, dirty, (next, previous) ->
+                        new Dirty(previous.firstAt(), next.lastAt()));
+                log.warn("Venue evaluation queue full, deferring school {}", schoolId);
+            }
+        }
+    }
+
+    private void evaluate(Long schoolId) {
+        try {
+            Long lease = claim(schoolId);
+            if (lease == null) {
+                if (exists(schoolId)) {
+                    // 다른 인스턴스가 평가 중. 이쪽 요청 이후의 리뷰가 빠지지 않도록 그 평가가 끝난 뒤 다시 평가
+                    log.debug("School {} is being evaluated on another instance, deferring", schoolId);
+                    record(schoolId);
+                }
+                return;
+            }
+            try {
+                schoolEmbeddingAsyncService.updateSchoolEmbedding(schoolId);
+            } finally {
+                release(schoolId, lease);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to evaluate school {}", schoolId, e);
+        } finally {
+            inFlight.remove(schoolId);
+        }
+    }
+
+    /**
+     * 평가 임대를 잡는다. 다른 인스턴스가 잡고 있으면(또는 학교가 없으면) null, 잡았으면 풀 때 쓸 만료 시각(epoch ms)
+     */
+    private Long claim(Long schoolId) {
+        long now = System.currentTimeMillis();
+        long until = now + leaseMs;
+        int updated = jdbcTemplate.update(
+                "UPDATE schools SET evaluating_until = ? " +
+                        "WHERE id = ? AND (evaluating_until IS NULL OR evaluating_until < ?)",
+                until, schoolId, now);
+        return updated == 1 ? until : null;
+    }
+
+    /**
+     * 자기 임대일 때만 푼다 (만료 뒤 다른 인스턴스가 잡은 임대는 그대로)
+     */
+    private void release(Long schoolId, long lease) {
+        jdbcTemplate.update("UPDATE schools SET evaluating_until = NULL WHERE id = ? AND evaluating_until = ?",
+                schoolId, lease);
+    }
+
+    private boolean exists(Long schoolId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM schools WHERE id = ?", Integer.class, schoolId);
+        return count != null && count > 0;
+    }
+}
@@ -1,11 +1,11 @@
 package com.moleep.toeic_master.service;
 
 import com.moleep.toeic_master.dto.response.SchoolResponse;
+import com.moleep.toeic_master.entity.RecommendationType;
 import com.moleep.toeic_master.entity.School;
-import com.moleep.toeic_master.entity.User;
 import com.moleep.toeic_master.exception.CustomException;
 import com.moleep.toeic_master.repository.SchoolRepository;
-import com.moleep.toeic_master.repository.UserRepository;
+import com.moleep.toeic_master.vector.EmbeddingMatrix;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -17,42 +17,30 @@ import java.util.*;
 @RequiredArgsConstructor
 public class SchoolRecommendationService {
 
-    private final UserRepository userRepository;
+    private final UserEmbeddingCache userEmbeddingCache;
     private final SchoolRepository schoolRepository;
-    private final EmbeddingService embeddingService;
     private final SchoolEmbeddingCache schoolEmbeddingCache;
+    private final RecommendationResultCache recommendationResultCache;
+    private final PrecomputedRecommendationService precomputedRecommendationService;
 
     @Transactional(readOnly = true)
     public List<SchoolResponse> getRecommendedSchools(Long userId, int topK) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new CustomException("사용자를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
-
-        if (user.getEmbedding() == null) {
+        // 디코딩/정규화된 성향 임베딩 (없으면 임베딩 컬럼만 읽어 채움)
+        UserEmbeddingCache.Lookup user = userEmbeddingCache.get(userId);
+        if (user == null) {
             throw new CustomException("성향 정보가 없습니다. 프로필에서 성향을 설정해주세요.", HttpStatus.BAD_REQUEST);
         }
 
-        float[] userEmbedding = embeddingService.bytesToFloatArray(user.getEmbedding());
-
-        // 캐시에서 모든 학교 임베딩 조회 및 코사인 유사도 계산
-        Map<Long, float[]> allSchoolEmbeddings = schoolEmbeddingCache.getAll();
-
-        if (allSchoolEmbeddings.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<SchoolSimilarity> similarities = new ArrayList<>();
-        for (Map.Entry<Long, float[]> entry : allSchoolEmbeddings.entrySet()) {
-            double similarity = embeddingService.cosineSimilarity(userEmbedding, entry.getValue());
-            similarities.add(new SchoolSimilarity(entry.getKey(), similarity));
+        // 성향과 인덱스 버전이 그대로면 이전 검색 결과(id 순서)를 재사용. 웜업 중에는 인덱스가 채워지는 중이라 보관하지 않음
+        List<Long> topKIds;
+        if (schoolEmbeddingCache.isWarmedUp()) {
+            RecommendationResultCache.Key key = RecommendationResultCache.Key.school(user.version(),
+                    schoolEmbeddingCache.version(), topK);
+            topKIds = toList(recommendationResultCache.get(userId, key, () -> recommend(userId, user.embedding(), topK)));
+        } else {
+            topKIds = toList(recommend(userId, user.embedding(), topK));
         }
 
-        // 유사도 기준 정렬 및 Top-K 추출
-        similarities.sort((a, b) -> Double.compare(b.similarity(), a.similarity()));
-        List<Long> topKIds = similarities.stream()
-                .limit(topK)
-                .map(SchoolSimilarity::schoolId)
-                .toList();
-
         if (topKIds.isEmpty()) {
             return Collections.emptyList();
         }
@@ -76,5 +64,25 @@ public class SchoolRecommendationService {
         return result;
     }
 
-    private record SchoolSimilarity(Long schoolId, double similarity) {}
+    private long[] recommend(Long userId, float[] userEmbedding, int topK) {
+        // 야간 배치 결과 중 아직 남아 있는 학교가 topK개 이상이면 사용, 아니면 온라인 검색
+        long[] precomputed = precomputedRecommendationService.resolve(userId, RecommendationType.SCHOOL,
+                userEmbedding, topK, candidates -> schoolEmbeddingCache.retainPresent(candidates, topK));
+        return precomputed != null ? precomputed : search(userEmbedding, topK);
+    }
+
+    private long[] search(float[] userEmbedding, int topK) {
+        // 캐시에서 내적 기반 Top-K 검색 (임베딩은 이미 정규화되어 있음)
+        EmbeddingMatrix.Snapshot snapshot = schoolEmbeddingCache.snapshot();
+        if (snapshot.isEmpty() || snapshot.dimension() != userEmbedding.length) {
+            return new long[0];
+        }
+        return schoolEmbeddingCache.search(userEmbedding, topK).sortedIds();
+    }
+
+    private static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids)
+                .boxed()
+                .toList();
+    }
 }
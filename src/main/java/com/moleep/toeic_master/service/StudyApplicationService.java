@@ -7,6 +7,7 @@ import com.moleep.toeic_master.exception.CustomException;
 import com.moleep.toeic_master.repository.StudyApplicationRepository;
 import com.moleep.toeic_master.repository.StudyRepository;
 import com.moleep.toeic_master.repository.UserRepository;
+import com.moleep.toeic_master.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -21,13 +22,14 @@ public class StudyApplicationService {
     private final StudyApplicationRepository applicationRepository;
     private final StudyRepository studyRepository;
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
     private final StudyMemberService memberService;
     private final ScoreService scoreService;
 
     @Transactional
     public ApplicationResponse apply(Long userId, Long studyId, ApplicationRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new CustomException("사용자를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
+        // 존재 확인만 캐시로 하고 users 행은 검증을 모두 통과한 뒤 응답을 만들 때 읽음
+        userPrincipalCache.get(userId);
 
         Study study = studyRepository.findById(studyId)
                 .orElseThrow(() -> new CustomException("스터디를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
@@ -46,7 +48,7 @@ public class StudyApplicationService {
 
         StudyApplication application = StudyApplication.builder()
                 .study(study)
-                .user(user)
+                .user(userRepository.getReferenceById(userId))
                 .message(request.getMessage())
                 .build();
 
@@ -1,62 +1,346 @@
 package com.moleep.toeic_master.service;
 
 import com.moleep.toeic_master.entity.Study;
+import com.moleep.toeic_master.repository.StudyEmbeddingView;
+import com.moleep.toeic_master.repository.StudyFilterView;
 import com.moleep.toeic_master.repository.StudyRepository;
+import com.moleep.toeic_master.vector.BlockedTopK;
+import com.moleep.toeic_master.vector.EmbeddingIndex;
+import com.moleep.toeic_master.vector.EmbeddingMatrix;
+import com.moleep.toeic_master.vector.EmbeddingSnapshotFile;
+import com.moleep.toeic_master.vector.TopKSelector;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class StudyEmbeddingCache {
 
+    private static final String SNAPSHOT_NAME = "study";
+    private static final int WARMUP_CHUNK_SIZE = 1024;
+
     private final StudyRepository studyRepository;
     private final EmbeddingService embeddingService;
+    private final EmbeddingIndex.Options indexOptions;
+    private final EmbeddingSnapshotStore snapshotStore;
+    private final PlatformTransactionManager transactionManager;
+
+    // 정규화된 임베딩 행렬 + HNSW 그래프
+    private EmbeddingIndex index;
+
+    // 행렬 행 번호 기준 필터 비트셋 (시험 종류, 지역, 모집 상태, 목표 점수)
+    private final StudyFilterIndex filterIndex = new StudyFilterIndex();
+
+    // 마지막으로 파일에 기록한 스냅샷. 변경이 없으면 다시 쓰지 않음
+    private volatile EmbeddingMatrix.Snapshot savedSnapshot;
 
-    private final Map<Long, float[]> cache = new ConcurrentHashMap<>();
+    // 적재 전의 빈 행렬로 기존 스냅샷 파일을 덮어쓰지 않도록 구분
+    private volatile boolean warmedUp;
+
+    // 이 시각(epoch ms) 이전의 변경은 반영됨. catchUp이 여기서부터 다시 확인
+    private volatile long caughtUpTo;
+
+    // 임베딩/필터 속성이 바뀔 때마다 증가 (추천 결과 캐시 무효화 기준)
+    private final AtomicLong version = new AtomicLong();
 
     @PostConstruct
     public void init() {
-        loadAllEmbeddings();
+        index = new EmbeddingIndex(SNAPSHOT_NAME, indexOptions);
     }
 
-    private void loadAllEmbeddings() {
-        log.info("Loading study embeddings into cache...");
-        List<Study> studies = studyRepository.findAll();
-        int count = 0;
-        for (Study study : studies) {
-            if (study.getEmbedding() != null) {
-                float[] embedding = embeddingService.bytesToFloatArray(study.getEmbedding());
-                if (embedding != null) {
-                    cache.put(study.getId(), embedding);
-                    count++;
+    /**
+     * 스냅샷 파일(없으면 DB 스트리밍)로 캐시를 채우고 그 사이 변경된 스터디를 다시 반영한다.
+     * 기동 후 EmbeddingCacheWarmer가 백그라운드에서 호출한다.
+     */
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        EmbeddingSnapshotFile.Mapped mapped = snapshotStore.load(SNAPSHOT_NAME);
+        int loaded;
+        long replayFrom;
+        if (mapped != null) {
+            loaded = restoreSnapshot(mapped);
+            replayFrom = snapshotStore.replayFrom(mapped.highWater());
+        } else {
+            loaded = streamAllEmbeddings();
+            replayFrom = snapshotStore.replayFrom(start);
+        }
+
+        List<StudyEmbeddingView> changed = studyRepository.findWithEmbeddingChangedSince(replayFrom);
+        changed.forEach(this::put);
+        index.rebuildAsync();
+        caughtUpTo = start;
+        warmedUp = true;
+        log.info("Warmed up {} study embeddings ({} from {}, {} replayed) in {} ms",
+                size(), loaded, mapped != null ? "snapshot" : "database", changed.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 스냅샷 파일의 벡터와 DB의 필터 컬럼으로 캐시를 채운다.
+     */
+    private int restoreSnapshot(EmbeddingSnapshotFile.Mapped mapped) {
+        Map<Long, StudyFilterIndex.Attributes> attributesById = new HashMap<>();
+        for (StudyFilterView view : studyRepository.findFilterViewsWithEmbedding()) {
+            attributesById.put(view.getId(), StudyFilterIndex.Attributes.from(view));
+        }
+
+        // 스냅샷 이후 삭제되었거나 임베딩이 없어진 스터디는 건너뜀
+        int restored = 0;
+        for (int row = 0; row < mapped.count(); row++) {
+            long studyId = mapped.ids()[row];
+            StudyFilterIndex.Attributes attributes = attributesById.get(studyId);
+            if (attributes != null) {
+                put(studyId, mapped.vector(row), attributes);
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * (id, 임베딩, 필터 컬럼) 프로젝션을 서버 측 커서로 읽어 청크 단위로 병렬 디코딩한다.
+     * 엔티티를 만들지 않으므로 영속성 컨텍스트에 쌓이지 않는다.
+     */
+    private int streamAllEmbeddings() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Integer count = transaction.execute(status -> {
+            int loaded = 0;
+            try (Stream<StudyEmbeddingView> rows = studyRepository.streamEmbeddingViews()) {
+                List<StudyEmbeddingView> chunk = new ArrayList<>(WARMUP_CHUNK_SIZE);
+                Iterator<StudyEmbeddingView> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == WARMUP_CHUNK_SIZE || !iterator.hasNext()) {
+                        loaded += putChunk(chunk);
+                        chunk.clear();
+                    }
                 }
             }
+            return loaded;
+        });
+        return count != null ? count : 0;
+    }
+
+    private int putChunk(List<StudyEmbeddingView> chunk) {
+        float[][] embeddings = new float[chunk.size()][];
+        IntStream.range(0, chunk.size()).parallel()
+                .forEach(i -> embeddings[i] = embeddingService.bytesToFloatArray(chunk.get(i).getEmbedding()));
+        int count = 0;
+        for (int i = 0; i < embeddings.length; i++) {
+            if (embeddings[i] != null) {
+                StudyEmbeddingView view = chunk.get(i);
+                put(view.getId(), embeddings[i], StudyFilterIndex.Attributes.from(view));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 임베딩과 필터 속성을 함께 갱신
+     */
+    public void put(Study study, float[] embedding) {
+        if (embedding != null) {
+            put(study.getId(), embedding, StudyFilterIndex.Attributes.from(study));
         }
-        log.info("Loaded {} study embeddings into cache", count);
     }
 
-    public void put(Long studyId, float[] embedding) {
+    private void put(StudyEmbeddingView view) {
+        float[] embedding = embeddingService.bytesToFloatArray(view.getEmbedding());
         if (embedding != null) {
-            cache.put(studyId, embedding);
+            put(view.getId(), embedding, StudyFilterIndex.Attributes.from(view));
+        } else if (index.rowOf(view.getId()) >= 0) {
+            remove(view.getId());
+        }
+    }
+
+    private synchronized void put(long studyId, float[] embedding, StudyFilterIndex.Attributes attributes) {
+        int row = index.put(studyId, embedding);
+        if (row < 0) {
+            filterIndex.remove(studyId);
+        } else {
+            filterIndex.put(studyId, row, attributes, index.snapshot());
+        }
+        // 반영한 뒤에 올려야 새 버전으로 읽은 검색이 이전 상태를 보지 않음
+        version.incrementAndGet();
+    }
+
+    /**
+     * 임베딩 변경 없이 시험 종류/지역/모집 상태/목표 점수만 바뀐 경우
+     */
+    public synchronized void updateAttributes(Study study) {
+        if (!filterIndex.contains(study.getId())) {
+            return;
+        }
+        int row = index.rowOf(study.getId());
+        if (row >= 0) {
+            filterIndex.update(study.getId(), row, StudyFilterIndex.Attributes.from(study));
+            version.incrementAndGet();
         }
     }
 
+    /**
+     * DB의 현재 상태로 한 스터디를 다시 반영 (다른 인스턴스의 변경 알림 수신 시)
+     */
+    public void refresh(Long studyId) {
+        studyRepository.findEmbeddingViewById(studyId).ifPresentOrElse(this::put, () -> remove(studyId));
+    }
+
+    /**
+     * 마지막 확인 이후 embedding_version이 바뀐 스터디를 다시 반영한다. 놓친 변경 알림을 보완하며 반영한 수를 반환.
+     * 삭제된 스터디는 embedding_version으로 찾을 수 없으므로, reconcile이면 DB에 임베딩이 없는 캐시 항목도 지운다.
+     */
+    public int catchUp(boolean reconcile) {
+        if (!warmedUp) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        // 목록을 읽기 전에 잡은 스냅샷이므로, 그 사이 새로 들어온 스터디를 지우지 않음
+        EmbeddingMatrix.Snapshot before = index.snapshot();
+        List<StudyEmbeddingView> changed =
+                studyRepository.findWithEmbeddingChangedSince(snapshotStore.replayFrom(caughtUpTo));
+        changed.forEach(this::put);
+        int removed = reconcile ? removeMissing(before, new HashSet<>(studyRepository.findIdsWithEmbedding())) : 0;
+        caughtUpTo = now;
+        return changed.size() + removed;
+    }
+
+    private int removeMissing(EmbeddingMatrix.Snapshot before, Set<Long> ids) {
+        int removed = 0;
+        for (int row = 0; row < before.rows(); row++) {
+            if (before.isLive(row) && !ids.contains(before.id(row))) {
+                remove(before.id(row));
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 정규화된 임베딩 복사본 반환
+     */
     public float[] get(Long studyId) {
-        return cache.get(studyId);
+        return index.get(studyId);
+    }
+
+    public synchronized void remove(Long studyId) {
+        index.remove(studyId);
+        filterIndex.remove(studyId);
+        version.incrementAndGet();
+    }
+
+    /**
+     * 스캔용 스냅샷. 이후의 put/remove와 무관하게 일관된 뷰를 제공
+     */
+    public EmbeddingMatrix.Snapshot snapshot() {
+        return index.snapshot();
     }
 
-    public void remove(Long studyId) {
-        cache.remove(studyId);
+    /**
+     * 모집 중이면서 필터 조건(null이면 무시)에 맞는 스터디 중 query(정규화된 벡터)와 가장 유사한 상위 k개.
+     * 필터는 행렬 스캔 안에서 비트셋 교집합으로 평가된다.
+     */
+    public TopKSelector search(float[] query, int k, String examType, String region,
+                               Integer minScore, Integer maxScore) {
+        EmbeddingMatrix.Snapshot snapshot = index.snapshot();
+        StudyFilterIndex.Bitmaps bitmaps = filterIndex.bitmaps();
+        if (bitmaps.generation() != snapshot.generation()) {
+            // 압축 직후 비트셋 재구축 중이면 락을 잡고 일치하는 쌍을 얻음
+            synchronized (this) {
+                snapshot = index.snapshot();
+                bitmaps = filterIndex.bitmaps();
+            }
+        }
+        long[] mask = bitmaps.match(examType, region, minScore, maxScore, snapshot.rows());
+        return index.search(snapshot, query, k, mask);
     }
 
-    public Map<Long, float[]> getAll() {
-        return cache;
+    /**
+     * 모집 중인 모든 스터디를 대상으로 여러 질의(정규화된 벡터를 이어 붙인 배열)의 상위 k개를 한 번에 전수 계산
+     */
+    public TopKSelector[] searchAll(float[] queries, int queryCount, int k, ForkJoinPool pool) {
+        EmbeddingMatrix.Snapshot snapshot;
+        StudyFilterIndex.Bitmaps bitmaps;
+        synchronized (this) {
+            snapshot = index.snapshot();
+            bitmaps = filterIndex.bitmaps();
+        }
+        long[] mask = bitmaps.match(null, null, null, null, snapshot.rows());
+        return BlockedTopK.search(snapshot, queries, queryCount, k, mask, pool);
+    }
+
+    /**
+     * ids 중 지금도 모집 중이면서 필터 조건(null이면 무시)에 맞는 스터디를 순서대로 최대 limit개
+     */
+    public synchronized long[] retainMatching(long[] ids, String examType, String region,
+                                              Integer minScore, Integer maxScore, int limit) {
+        return Arrays.stream(ids)
+                .filter(id -> filterIndex.matches(id, examType, region, minScore, maxScore))
+                .limit(Math.max(0, limit))
+                .toArray();
+    }
+
+    /**
+     * 현재 검색 경로(HNSW/int8)의 recall@k를 float 전수 검색 대비로 측정
+     */
+    public double sampleRecall(int samples, int k) {
+        return index.sampleRecall(samples, k);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 검색 결과에 영향을 주는 변경이 반영될 때마다 증가하는 값. 검색 전에 읽어 결과와 함께 보관한다.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    /**
+     * 현재 행렬을 스냅샷 파일로 기록. 종료 시와 주기적으로 호출된다.
+     */
+    @Scheduled(fixedDelayString = "${embedding.snapshot.interval-ms:600000}",
+            initialDelayString = "${embedding.snapshot.interval-ms:600000}")
+    @PreDestroy
+    public void saveSnapshot() {
+        if (!warmedUp) {
+            return;
+        }
+        // 읽기 전 시각을 기록해야 이후의 변경이 다음 기동 때 재적용 대상에 포함됨
+        long highWater = System.currentTimeMillis();
+        EmbeddingMatrix.Snapshot snapshot = index.snapshot();
+        if (snapshot == savedSnapshot) {
+            return;
+        }
+        if (snapshotStore.save(SNAPSHOT_NAME, snapshot, highWater)) {
+            savedSnapshot = snapshot;
+        }
     }
 }
@@ -0,0 +1,299 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.entity.Study;
+import com.moleep.toeic_master.entity.StudyStatus;
+import com.moleep.toeic_master.repository.StudyFilterView;
+import com.moleep.toeic_master.vector.EmbeddingMatrix;
+import com.moleep.toeic_master.vector.RowBits;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 스터디 추천 필터(시험 종류, 지역, 모집 상태, 목표 점수)를 임베딩 행렬의 행 번호 기준 비트셋으로 보관한다.
+ * 시험 종류/지역은 값마다, 목표 점수는 구간마다 비트셋을 두고 교집합으로 후보 행을 구한다.
+ * 수정은 StudyEmbeddingCache 락 안에서만 일어나며, 행렬 압축으로 행 번호가 바뀌면 전체를 다시 만든다.
+ * 검색은 락 없이 bitmaps()로 읽으므로, 기존 행의 속성 변경은 바뀌는 비트셋만 복사한 새 Bitmaps로 교체한다
+ * (EmbeddingMatrix의 live 비트셋과 같은 copy-on-write). 새 행은 아직 어떤 검색 결과에도 없던 행이라 제자리에서 켜고,
+ * 다시 volatile 필드에 써서 이후 읽는 쪽에 보이게 한다.
+ */
+class StudyFilterIndex {
+
+    static final int SCORE_BUCKET_WIDTH = 50;
+    static final int SCORE_BUCKETS = 21;
+    private static final int NO_SCORE = Integer.MIN_VALUE;
+    private static final int MIN_CAPACITY = 1024;
+
+    private final Map<Long, Attributes> attributesById = new HashMap<>();
+    private volatile Bitmaps bitmaps = new Bitmaps(0L, MIN_CAPACITY);
+
+    record Attributes(String examType, String region, StudyStatus status, Integer targetScore) {
+
+        static Attributes from(Study study) {
+            return new Attributes(study.getExamType(), study.getRegion(), study.getStatus(), study.getTargetScore());
+        }
+
+        static Attributes from(StudyFilterView view) {
+            return new Attributes(view.getExamType(), view.getRegion(), view.getStatus(), view.getTargetScore());
+        }
+    }
+
+    Bitmaps bitmaps() {
+        return bitmaps;
+    }
+
+    /**
+     * 새로 추가된 행의 속성을 기록한다. snapshot은 행 추가 직후의 스냅샷
+     */
+    void put(long id, int row, Attributes attributes, EmbeddingMatrix.Snapshot snapshot) {
+        attributesById.put(id, attributes);
+        if (bitmaps.generation != snapshot.generation()) {
+            rebuild(snapshot);
+            return;
+        }
+        Bitmaps current = ensureCapacity(row + 1);
+        // 모든 비트가 켜지기 전에는 교집합에서 빠질 뿐 잘못 포함되지는 않음
+        current.set(row, attributes);
+        bitmaps = current;
+    }
+
+    /**
+     * 벡터 변경 없이 속성만 바뀐 경우 같은 행의 비트를 옮긴 새 Bitmaps를 게시한다.
+     * 검색 중인 쪽은 이전 Bitmaps를 그대로 보므로, 지웠다 다시 켜는 사이의 상태를 보지 않는다.
+     */
+    void update(long id, int row, Attributes attributes) {
+        Attributes previous = attributesById.put(id, attributes);
+        bitmaps = ensureCapacity(row + 1).withUpdate(row, previous, attributes);
+    }
+
+    void remove(long id) {
+        // 행렬에서 삭제 표시된 행은 검색 시 살아 있는 행과의 교집합에서 빠지므로 비트는 압축 때 정리
+        attributesById.remove(id);
+    }
+
+    boolean contains(long id) {
+        return attributesById.containsKey(id);
+    }
+
+    /**
+     * id의 현재 속성이 모집 중이면서 조건(null이면 무시)에 맞는지. Bitmaps.match와 같은 기준
+     */
+    boolean matches(long id, String examType, String region, Integer minScore, Integer maxScore) {
+        Attributes attributes = attributesById.get(id);
+        if (attributes == null || attributes.status() != StudyStatus.RECRUITING) {
+            return false;
+        }
+        if (examType != null && !examType.equals(attributes.examType())) {
+            return false;
+        }
+        if (region != null && !region.equals(attributes.region())) {
+            return false;
+        }
+        if (minScore == null && maxScore == null) {
+            return true;
+        }
+        Integer score = attributes.targetScore();
+        return score != null
+                && (minScore == null || score >= minScore)
+                && (maxScore == null || score <= maxScore);
+    }
+
+    void rebuild(EmbeddingMatrix.Snapshot snapshot) {
+        Bitmaps rebuilt = new Bitmaps(snapshot.generation(), Math.max(MIN_CAPACITY, snapshot.rows() * 2));
+        for (int row = 0; row < snapshot.rows(); row++) {
+            if (!snapshot.isLive(row)) {
+                continue;
+            }
+            Attributes attributes = attributesById.get(snapshot.id(row));
+            if (attributes != null) {
+                rebuilt.set(row, attributes);
+            }
+        }
+        bitmaps = rebuilt;
+    }
+
+    private Bitmaps ensureCapacity(int rows) {
+        Bitmaps current = bitmaps;
+        if (rows <= current.capacity) {
+            return current;
+        }
+        Bitmaps grown = current.grow(Math.max(rows, current.capacity * 2));
+        bitmaps = grown;
+        return grown;
+    }
+
+    private static int bucket(int score) {
+        return Math.max(0, Math.min(SCORE_BUCKETS - 1, score / SCORE_BUCKET_WIDTH));
+    }
+
+    /**
+     * 특정 행렬 generation에 대한 비트셋 묶음. 용량을 넘으면 복사본으로 교체된다.
+     */
+    static final class Bitmaps {
+
+        private final long generation;
+        private final int capacity;
+        private final Map<String, long[]> examTypes;
+        private final Map<String, long[]> regions;
+        private final long[] recruiting;
+        private final long[][] scoreBuckets;
+        private final int[] scores;
+
+        private Bitmaps(long generation, int capacity) {
+            this.generation = generation;
+            this.capacity = capacity;
+            this.examTypes = new ConcurrentHashMap<>();
+            this.regions = new ConcurrentHashMap<>();
+            this.recruiting = new long[RowBits.words(capacity)];
+            this.scoreBuckets = new long[SCORE_BUCKETS][RowBits.words(capacity)];
+            this.scores = new int[capacity];
+        }
+
+        private Bitmaps(long generation, int capacity, Map<String, long[]> examTypes, Map<String, long[]> regions,
+                        long[] recruiting, long[][] scoreBuckets, int[] scores) {
+            this.generation = generation;
+            this.capacity = capacity;
+            this.examTypes = examTypes;
+            this.regions = regions;
+            this.recruiting = recruiting;
+            this.scoreBuckets = scoreBuckets;
+            this.scores = scores;
+        }
+
+        private Bitmaps(Bitmaps source, int capacity) {
+            this.generation = source.generation;
+            this.capacity = capacity;
+            this.examTypes = copy(source.examTypes, capacity);
+            this.regions = copy(source.regions, capacity);
+            this.recruiting = RowBits.copyOf(source.recruiting, capacity);
+            this.scoreBuckets = new long[SCORE_BUCKETS][];
+            for (int i = 0; i < SCORE_BUCKETS; i++) {
+                scoreBuckets[i] = RowBits.copyOf(source.scoreBuckets[i], capacity);
+            }
+            this.scores = Arrays.copyOf(source.scores, capacity);
+        }
+
+        long generation() {
+            return generation;
+        }
+
+        /**
+         * 조건에 맞는 모집 중 스터디 행 비트셋 (길이 = rows 기준). null 조건은 무시
+         */
+        long[] match(String examType, String region, Integer minScore, Integer maxScore, int rows) {
+            long[] mask = RowBits.copyOf(recruiting, rows);
+            if (examType != null) {
+                RowBits.and(mask, examTypes.getOrDefault(examType, new long[0]));
+            }
+            if (region != null) {
+                RowBits.and(mask, regions.getOrDefault(region, new long[0]));
+            }
+            if (minScore == null && maxScore == null) {
+                return mask;
+            }
+
+            int min = minScore != null ? minScore : Integer.MIN_VALUE + 1;
+            int max = maxScore != null ? maxScore : Integer.MAX_VALUE;
+            if (min > max) {
+                return new long[mask.length];
+            }
+            long[] scoreMask = new long[mask.length];
+            for (int b = bucket(min); b <= bucket(max); b++) {
+                RowBits.or(scoreMask, scoreBuckets[b]);
+            }
+            RowBits.and(mask, scoreMask);
+
+            // 구간 비트셋은 후보만 좁히므로 정확한 점수로 다시 확인
+            for (int w = 0; w < mask.length; w++) {
+                long word = mask[w];
+                while (word != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    int score = scores[row];
+                    if (score < min || score > max) {
+                        RowBits.clear(mask, row);
+                    }
+                }
+            }
+            return mask;
+        }
+
+        private void set(int row, Attributes attributes) {
+            if (attributes.examType() != null) {
+                RowBits.set(examTypes.computeIfAbsent(attributes.examType(), key -> new long[RowBits.words(capacity)]), row);
+            }
+            if (attributes.region() != null) {
+                RowBits.set(regions.computeIfAbsent(attributes.region(), key -> new long[RowBits.words(capacity)]), row);
+            }
+            if (attributes.status() == StudyStatus.RECRUITING) {
+                RowBits.set(recruiting, row);
+            }
+            if (attributes.targetScore() != null) {
+                scores[row] = attributes.targetScore();
+                RowBits.set(scoreBuckets[bucket(attributes.targetScore())], row);
+            } else {
+                scores[row] = NO_SCORE;
+            }
+        }
+
+        private void clear(int row, Attributes attributes) {
+            if (attributes.examType() != null && examTypes.containsKey(attributes.examType())) {
+                RowBits.clear(examTypes.get(attributes.examType()), row);
+            }
+            if (attributes.region() != null && regions.containsKey(attributes.region())) {
+                RowBits.clear(regions.get(attributes.region()), row);
+            }
+            RowBits.clear(recruiting, row);
+            if (attributes.targetScore() != null) {
+                RowBits.clear(scoreBuckets[bucket(attributes.targetScore())], row);
+            }
+            scores[row] = NO_SCORE;
+        }
+
+        /**
+         * row의 속성을 previous(null이면 없음)에서 attributes로 바꾼 복사본. 바뀌는 비트셋만 복사하고 나머지는 공유한다
+         */
+        private Bitmaps withUpdate(int row, Attributes previous, Attributes attributes) {
+            Bitmaps next = new Bitmaps(generation, capacity,
+                    new ConcurrentHashMap<>(examTypes), new ConcurrentHashMap<>(regions),
+                    recruiting.clone(), scoreBuckets.clone(), scores.clone());
+            for (Attributes touched : previous != null ? List.of(previous, attributes) : List.of(attributes)) {
+                next.copyBitsOf(touched);
+            }
+            if (previous != null) {
+                next.clear(row, previous);
+            }
+            next.set(row, attributes);
+            return next;
+        }
+
+        /**
+         * attributes 값에 해당하는 비트셋을 이 인스턴스 전용 복사본으로 바꾼다
+         */
+        private void copyBitsOf(Attributes attributes) {
+            if (attributes.examType() != null) {
+                examTypes.computeIfPresent(attributes.examType(), (key, bits) -> bits.clone());
+            }
+            if (attributes.region() != null) {
+                regions.computeIfPresent(attributes.region(), (key, bits) -> bits.clone());
+            }
+            if (attributes.targetScore() != null) {
+                int b = bucket(attributes.targetScore());
+                scoreBuckets[b] = scoreBuckets[b].clone();
+            }
+        }
+
+        private Bitmaps grow(int capacity) {
+            return new Bitmaps(this, capacity);
+        }
+
+        private static Map<String, long[]> copy(Map<String, long[]> source, int capacity) {
+            Map<String, long[]> copy = new ConcurrentHashMap<>();
+            source.forEach((value, bits) -> copy.put(value, RowBits.copyOf(bits, capacity)));
+            return copy;
+        }
+    }
+}
@@ -1,14 +1,13 @@
 package com.moleep.toeic_master.service;
 
-import com.moleep.toeic_master.dto.response.StudyRecommendationResponse;
 import com.moleep.toeic_master.dto.response.StudyResponse;
+import com.moleep.toeic_master.entity.RecommendationType;
 import com.moleep.toeic_master.entity.Study;
-import com.moleep.toeic_master.entity.StudyStatus;
-import com.moleep.toeic_master.entity.User;
 import com.moleep.toeic_master.exception.CustomException;
 import com.moleep.toeic_master.repository.StudyMemberRepository;
 import com.moleep.toeic_master.repository.StudyRepository;
-import com.moleep.toeic_master.repository.UserRepository;
+import com.moleep.toeic_master.vector.EmbeddingMatrix;
+import com.moleep.toeic_master.vector.TopKSelector;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -20,11 +19,12 @@ import java.util.*;
 @RequiredArgsConstructor
 public class StudyRecommendationService {
 
-    private final UserRepository userRepository;
+    private final UserEmbeddingCache userEmbeddingCache;
     private final StudyRepository studyRepository;
     private final StudyMemberRepository studyMemberRepository;
-    private final EmbeddingService embeddingService;
     private final StudyEmbeddingCache studyEmbeddingCache;
+    private final RecommendationResultCache recommendationResultCache;
+    private final PrecomputedRecommendationService precomputedRecommendationService;
 
     @Transactional(readOnly = true)
     public List<StudyResponse> getRecommendedStudies(
@@ -35,44 +35,23 @@ public class StudyRecommendationService {
             Integer maxScore,
             int topK
     ) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new CustomException("사용자를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
-
-        if (user.getEmbedding() == null) {
+        // 디코딩/정규화된 성향 임베딩 (없으면 임베딩 컬럼만 읽어 채움)
+        UserEmbeddingCache.Lookup user = userEmbeddingCache.get(userId);
+        if (user == null) {
             throw new CustomException("성향 정보가 없습니다. 프로필에서 성향을 설정해주세요.", HttpStatus.BAD_REQUEST);
         }
 
-        float[] userEmbedding = embeddingService.bytesToFloatArray(user.getEmbedding());
-
-        // SQL 하드 필터로 study_id 목록 조회
-        List<Long> candidateIds = studyRepository.findStudyIdsWithFilters(
-                examType, region, StudyStatus.RECRUITING, minScore, maxScore
-        );
-
-        if (candidateIds.isEmpty()) {
-            return Collections.emptyList();
+        // 성향과 인덱스 버전이 그대로면 이전 검색 결과(id 순서)를 재사용. 웜업 중에는 인덱스가 채워지는 중이라 보관하지 않음
+        List<Long> topKIds;
+        if (studyEmbeddingCache.isWarmedUp()) {
+            RecommendationResultCache.Key key = RecommendationResultCache.Key.study(user.version(),
+                    studyEmbeddingCache.version(), examType, region, minScore, maxScore, topK);
+            topKIds = toList(recommendationResultCache.get(userId, key,
+                    () -> recommend(userId, user.embedding(), examType, region, minScore, maxScore, topK)));
+        } else {
+            topKIds = toList(recommend(userId, user.embedding(), examType, region, minScore, maxScore, topK));
         }
 
-        // 캐시에서 임베딩 조회 및 코사인 유사도 계산
-        List<StudyRecommendationResponse> similarities = new ArrayList<>();
-        for (Long studyId : candidateIds) {
-            float[] studyEmbedding = studyEmbeddingCache.get(studyId);
-            if (studyEmbedding != null) {
-                double similarity = embeddingService.cosineSimilarity(userEmbedding, studyEmbedding);
-                similarities.add(StudyRecommendationResponse.builder()
-                        .studyId(studyId)
-                        .similarity(similarity)
-                        .build());
-            }
-        }
-
-        // 유사도 기준 정렬 및 Top-K 추출
-        similarities.sort((a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()));
-        List<Long> topKIds = similarities.stream()
-                .limit(topK)
-                .map(StudyRecommendationResponse::getStudyId)
-                .toList();
-
         if (topKIds.isEmpty()) {
             return Collections.emptyList();
         }
@@ -95,4 +74,32 @@ public class StudyRecommendationService {
 
         return result;
     }
+
+    private long[] recommend(Long userId, float[] userEmbedding, String examType, String region,
+                             Integer minScore, Integer maxScore, int topK) {
+        // 야간 배치 결과를 현재 모집 상태/필터로 걸러 topK개가 남으면 사용, 아니면 온라인 검색
+        long[] precomputed = precomputedRecommendationService.resolve(userId, RecommendationType.STUDY,
+                userEmbedding, topK,
+                candidates -> studyEmbeddingCache.retainMatching(candidates, examType, region, minScore, maxScore, topK));
+        return precomputed != null ? precomputed : search(userEmbedding, examType, region, minScore, maxScore, topK);
+    }
+
+    private long[] search(float[] userEmbedding, String examType, String region,
+                          Integer minScore, Integer maxScore, int topK) {
+        // 임베딩은 이미 정규화되어 있으므로 내적 = 코사인 유사도
+        EmbeddingMatrix.Snapshot snapshot = studyEmbeddingCache.snapshot();
+        if (snapshot.isEmpty() || snapshot.dimension() != userEmbedding.length) {
+            return new long[0];
+        }
+
+        // 모집 상태/시험 종류/지역/점수 필터는 캐시의 비트셋으로 평가하며 Top-K 검색
+        TopKSelector selector = studyEmbeddingCache.search(userEmbedding, topK, examType, region, minScore, maxScore);
+        return selector.sortedIds();
+    }
+
+    private static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids)
+                .boxed()
+                .toList();
+    }
 }
@@ -5,6 +5,7 @@ import com.moleep.toeic_master.dto.response.StudyResponse;
 import com.moleep.toeic_master.entity.*;
 import com.moleep.toeic_master.repository.ChatMessageRepository;
 import com.moleep.toeic_master.repository.StudyApplicationRepository;
+import com.moleep.toeic_master.repository.StudyEmbeddingRepository;
 import com.moleep.toeic_master.repository.StudyMemberRepository;
 import com.moleep.toeic_master.exception.CustomException;
 import com.moleep.toeic_master.repository.StudyRepository;
@@ -15,18 +16,22 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
 public class StudyService {
 
     private final StudyRepository studyRepository;
+    private final StudyEmbeddingRepository studyEmbeddingRepository;
     private final UserRepository userRepository;
     private final StudyMemberRepository studyMemberRepository;
     private final StudyApplicationRepository studyApplicationRepository;
     private final ChatMessageRepository chatMessageRepository;
-    private final EmbeddingService embeddingService;
+    private final EmbeddingJobService embeddingJobService;
     private final StudyEmbeddingCache studyEmbeddingCache;
+    private final EmbeddingChangeFeed embeddingChangeFeed;
 
     @Transactional(readOnly = true)
     public Page<StudyResponse> getStudies(String keyword, String examType, String region,
@@ -59,19 +64,11 @@ public class StudyService {
                 .meetingFrequency(request.getMeetingFrequency())
                 .build();
 
-        // content 임베딩 생성 및 저장
-        if (request.getContent() != null && !request.getContent().isBlank()) {
-            float[] embedding = embeddingService.getEmbedding(request.getContent());
-            if (embedding != null) {
-                study.setEmbedding(embeddingService.floatArrayToBytes(embedding));
-            }
-        }
-
         studyRepository.save(study);
 
-        // 캐시 업데이트
-        if (study.getEmbedding() != null) {
-            studyEmbeddingCache.put(study.getId(), embeddingService.bytesToFloatArray(study.getEmbedding()));
+        // content 임베딩은 커밋 후 워커가 생성하고 캐시에 반영
+        if (request.getContent() != null && !request.getContent().isBlank()) {
+            embeddingJobService.enqueue(EmbeddingTargetType.STUDY, study.getId());
         }
 
         // 방장을 멤버로 추가
@@ -105,13 +102,11 @@ public class StudyService {
         study.setStudyType(request.getStudyType());
         study.setMeetingFrequency(request.getMeetingFrequency());
 
-        // content 변경 시 임베딩 업데이트
+        // 필터 속성은 커밋 후 반영하고(롤백 시 캐시가 DB와 어긋나지 않도록), content 변경 시 임베딩은 워커가 다시 생성
+        afterCommit(() -> studyEmbeddingCache.updateAttributes(study));
+        embeddingChangeFeed.publish(EmbeddingChangeFeed.Kind.STUDY, study.getId());
         if (contentChanged && !request.getContent().isBlank()) {
-            float[] embedding = embeddingService.getEmbedding(request.getContent());
-            if (embedding != null) {
-                study.setEmbedding(embeddingService.floatArrayToBytes(embedding));
-                studyEmbeddingCache.put(study.getId(), embedding);
-            }
+            embeddingJobService.enqueue(EmbeddingTargetType.STUDY, study.getId());
         }
 
         return StudyResponse.from(study, studyMemberRepository.countByStudyId(study.getId()));
@@ -130,9 +125,11 @@ public class StudyService {
         chatMessageRepository.deleteByStudyId(studyId);
         studyApplicationRepository.deleteByStudyId(studyId);
         studyMemberRepository.deleteByStudyId(studyId);
+        studyEmbeddingRepository.deleteById(studyId);
 
         studyRepository.delete(study);
-        studyEmbeddingCache.remove(studyId);
+        afterCommit(() -> studyEmbeddingCache.remove(studyId));
+        embeddingChangeFeed.publish(EmbeddingChangeFeed.Kind.STUDY, studyId);
     }
 
     @Transactional
@@ -145,6 +142,17 @@ public class StudyService {
         }
 
         study.setStatus(StudyStatus.CLOSED);
+        afterCommit(() -> studyEmbeddingCache.updateAttributes(study));
+        embeddingChangeFeed.publish(EmbeddingChangeFeed.Kind.STUDY, study.getId());
         return StudyResponse.from(study, studyMemberRepository.countByStudyId(study.getId()));
     }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
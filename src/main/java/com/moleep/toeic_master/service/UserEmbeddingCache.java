@@ -0,0 +1,124 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.exception.CustomException;
+import com.moleep.toeic_master.repository.UserEmbeddingRepository;
+import com.moleep.toeic_master.repository.UserEmbeddingView;
+import com.moleep.toeic_master.repository.UserRepository;
+import com.moleep.toeic_master.vector.EmbeddingMatrix;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 추천 요청용 사용자 성향 임베딩(디코딩 + 정규화 완료) LRU 캐시. 처음 요청될 때 임베딩 컬럼만 읽어 채운다.
+ * 성향이 바뀌거나 새 임베딩이 기록되면 invalidate되며, 놓친 무효화는 ttl-ms가 지나면 다시 읽어 보완한다.
+ */
+@Component
+public class UserEmbeddingCache {
+
+    private final UserRepository userRepository;
+    private final UserEmbeddingRepository userEmbeddingRepository;
+    private final EmbeddingService embeddingService;
+    private final int maxSize;
+    private final long ttlMs;
+    private final Map<Long, Entry> entries;
+
+    // 로드 중에 무효화가 일어났으면 로드 결과를 넣지 않기 위한 카운터
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // 로드할 때마다 증가하는 임베딩 버전 (추천 결과 캐시 키에 사용)
+    private final AtomicLong versions = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private record Entry(float[] embedding, long version, long loadedAt) {}
+
+    /**
+     * 정규화된 성향 임베딩 복사본과 그 버전. 임베딩이 바뀌면 버전도 바뀐다.
+     */
+    public record Lookup(float[] embedding, long version) {}
+
+    public UserEmbeddingCache(UserRepository userRepository,
+                              UserEmbeddingRepository userEmbeddingRepository,
+                              EmbeddingService embeddingService,
+                              MeterRegistry meterRegistry,
+                              @Value("${recommendation.user-cache.max-size:10000}") int maxSize,
+                              @Value("${recommendation.user-cache.ttl-ms:600000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.userEmbeddingRepository = userEmbeddingRepository;
+        this.embeddingService = embeddingService;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > UserEmbeddingCache.this.maxSize;
+            }
+        };
+        this.hits = Counter.builder("user.embedding.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("user.embedding.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("user.embedding.cache.size", this, UserEmbeddingCache::size).register(meterRegistry);
+    }
+
+    /**
+     * 정규화된 성향 임베딩 복사본과 버전. 성향 임베딩이 아직 없으면 null, 사용자가 없으면 CustomException(404)
+     */
+    public Lookup get(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+        }
+        if (entry != null && now - entry.loadedAt() < ttlMs) {
+            hits.increment();
+            return new Lookup(entry.embedding().clone(), entry.version());
+        }
+
+        misses.increment();
+        long invalidationsBefore = invalidations.get();
+        UserEmbeddingView view = userEmbeddingRepository.findEmbeddingViewById(userId).orElse(null);
+        if (view == null) {
+            // 임베딩이 없는 경우에만 사용자 존재 여부를 확인
+            if (!userRepository.existsById(userId)) {
+                throw new CustomException("사용자를 찾을 수 없습니다", HttpStatus.NOT_FOUND);
+            }
+            return null;
+        }
+        float[] embedding = EmbeddingMatrix.normalize(embeddingService.bytesToFloatArray(view.getEmbedding()));
+        if (embedding == null) {
+            return null;
+        }
+        // TTL 만료로 다시 읽었는데 값이 같으면 버전을 유지해 추천 결과 캐시가 그대로 쓰이도록 함
+        long version = entry != null && Arrays.equals(entry.embedding(), embedding)
+                ? entry.version()
+                : versions.incrementAndGet();
+        synchronized (entries) {
+            if (invalidations.get() == invalidationsBefore) {
+                entries.put(userId, new Entry(embedding, version, now));
+            }
+        }
+        return new Lookup(embedding.clone(), version);
+    }
+
+    public void invalidate(Long userId) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(userId);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
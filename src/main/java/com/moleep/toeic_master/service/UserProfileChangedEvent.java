@@ -0,0 +1,7 @@
+package com.moleep.toeic_master.service;
+
+/**
+ * 사용자 프로필(닉네임, 소개, 성향, 프로필 이미지)이 바뀜. 커밋 후 인증 주체 캐시를 비우는 데 사용
+ */
+public record UserProfileChangedEvent(Long userId) {
+}
@@ -4,6 +4,7 @@ import com.moleep.toeic_master.dto.request.ProfileUpdateRequest;
 import com.moleep.toeic_master.dto.response.GalleryImageResponse;
 import com.moleep.toeic_master.dto.response.StudyResponse;
 import com.moleep.toeic_master.dto.response.UserProfileResponse;
+import com.moleep.toeic_master.entity.EmbeddingTargetType;
 import com.moleep.toeic_master.entity.ReviewImage;
 import com.moleep.toeic_master.entity.User;
 import com.moleep.toeic_master.exception.CustomException;
@@ -11,11 +12,14 @@ import com.moleep.toeic_master.repository.ReviewImageRepository;
 import com.moleep.toeic_master.repository.StudyMemberRepository;
 import com.moleep.toeic_master.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -27,7 +31,10 @@ public class UserService {
     private final ReviewImageRepository reviewImageRepository;
     private final StudyMemberRepository studyMemberRepository;
     private final S3Service s3Service;
-    private final EmbeddingService embeddingService;
+    private final EmbeddingJobService embeddingJobService;
+    private final UserEmbeddingCache userEmbeddingCache;
+    private final EmbeddingChangeFeed embeddingChangeFeed;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public UserProfileResponse getMyProfile(Long userId) {
@@ -67,12 +74,25 @@ public class UserService {
             boolean tendencyChanged = !request.getTendency().equals(user.getTendency());
             user.setTendency(request.getTendency());
 
+            if (tendencyChanged) {
+                // 캐시된 성향 임베딩은 커밋 후 버림 (새 임베딩이 기록될 때 한 번 더 무효화됨)
+                embeddingChangeFeed.publish(EmbeddingChangeFeed.Kind.USER, userId);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        userEmbeddingCache.invalidate(userId);
+                    }
+                });
+            }
+
+            // 성향 임베딩은 커밋 후 워커가 생성
             if (tendencyChanged && StringUtils.hasText(request.getTendency())) {
-                float[] embedding = embeddingService.getEmbedding(request.getTendency());
-                user.setEmbedding(embeddingService.floatArrayToBytes(embedding));
+                embeddingJobService.enqueue(EmbeddingTargetType.USER, user.getId());
             }
         }
 
+        // 캐시된 인증 주체(닉네임)는 커밋 후 버림
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
         return UserProfileResponse.from(user, getProfileImageUrl(user));
     }
 
@@ -83,13 +103,14 @@ public class UserService {
 
         // 기존 이미지 삭제
         if (user.getProfileImageKey() != null) {
-            s3Service.delete(user.getProfileImageKey());
+            s3Service.deleteAfterCommit(user.getProfileImageKey());
         }
 
         // 새 이미지 업로드
         String imageKey = s3Service.upload(image, "profile-images");
         user.setProfileImageKey(imageKey);
 
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
         return UserProfileResponse.from(user, s3Service.getPresignedUrl(imageKey));
     }
 
@@ -99,7 +120,7 @@ public class UserService {
                 .orElseThrow(() -> new CustomException("사용자를 찾을 수 없습니다", HttpStatus.NOT_FOUND));
 
         if (user.getProfileImageKey() != null) {
-            s3Service.delete(user.getProfileImageKey());
+            s3Service.deleteAfterCommit(user.getProfileImageKey());
             user.setProfileImageKey(null);
         }
 
@@ -0,0 +1,109 @@
+package com.moleep.toeic_master.vector;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 여러 질의 벡터 각각에 대해 스냅샷 행 전체를 전수 계산해 질의별 상위 k개를 고른다 (야간 일괄 추천용).
+ * 질의 블록 x 행 블록 단위로 내적을 계산하므로, 한 행 블록이 캐시에 올라와 있는 동안 블록 안의 모든 질의가 사용한다.
+ * 질의 블록끼리는 서로 독립적이어서 ForkJoinPool에서 병렬로 처리한다.
+ */
+public final class BlockedTopK {
+
+    // 768차원 기준 행 블록 64행 = 192KB, 질의 블록 32개 = 96KB (코어당 L2 캐시에 함께 들어가는 크기)
+    static final int ROW_BLOCK = 64;
+    static final int QUERY_BLOCK = 32;
+
+    private BlockedTopK() {
+    }
+
+    /**
+     * queries는 queryCount개의 정규화된 벡터를 행 단위로 이어 붙인 배열(길이 >= queryCount * dimension).
+     * mask가 null이면 살아 있는 모든 행, 아니면 mask에 켜진 살아 있는 행만 계산한다.
+     * 결과는 queries와 같은 순서의 질의별 TopKSelector
+     */
+    public static TopKSelector[] search(EmbeddingMatrix.Snapshot snapshot, float[] queries, int queryCount,
+                                        int k, long[] mask, ForkJoinPool pool) {
+        k = Math.min(k, snapshot.liveCount());
+        TopKSelector[] results = new TopKSelector[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            results[i] = new TopKSelector(k);
+        }
+        if (snapshot.isEmpty() || queryCount == 0 || k <= 0) {
+            return results;
+        }
+        if (queries.length < (long) queryCount * snapshot.dimension()) {
+            throw new IllegalArgumentException("queries shorter than " + queryCount + " x " + snapshot.dimension());
+        }
+        int[] rows = liveRows(snapshot, mask);
+        if (rows.length > 0) {
+            pool.invoke(new BlockTask(snapshot, rows, queries, results, 0, queryCount));
+        }
+        return results;
+    }
+
+    private static int[] liveRows(EmbeddingMatrix.Snapshot snapshot, long[] mask) {
+        long[] live = snapshot.liveMask();
+        if (mask != null) {
+            RowBits.and(live, mask);
+        }
+        int[] rows = new int[RowBits.cardinality(live)];
+        int count = 0;
+        for (int w = 0; w < live.length; w++) {
+            long word = live[w];
+            while (word != 0) {
+                rows[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return rows;
+    }
+
+    private static final class BlockTask extends RecursiveAction {
+
+        private final EmbeddingMatrix.Snapshot snapshot;
+        private final int[] rows;
+        private final float[] queries;
+        private final TopKSelector[] results;
+        private final int fromQuery;
+        private final int toQuery;
+
+        private BlockTask(EmbeddingMatrix.Snapshot snapshot, int[] rows, float[] queries, TopKSelector[] results,
+                          int fromQuery, int toQuery) {
+            this.snapshot = snapshot;
+            this.rows = rows;
+            this.queries = queries;
+            this.results = results;
+            this.fromQuery = fromQuery;
+            this.toQuery = toQuery;
+        }
+
+        @Override
+        protected void compute() {
+            if (toQuery - fromQuery <= QUERY_BLOCK) {
+                computeBlock();
+                return;
+            }
+            int mid = (fromQuery + toQuery) >>> 1;
+            invokeAll(new BlockTask(snapshot, rows, queries, results, fromQuery, mid),
+                    new BlockTask(snapshot, rows, queries, results, mid, toQuery));
+        }
+
+        private void computeBlock() {
+            float[] data = snapshot.data();
+            int dimension = snapshot.dimension();
+            for (int start = 0; start < rows.length; start += ROW_BLOCK) {
+                int end = Math.min(rows.length, start + ROW_BLOCK);
+                for (int q = fromQuery; q < toQuery; q++) {
+                    TopKSelector selector = results[q];
+                    int queryOffset = q * dimension;
+                    for (int i = start; i < end; i++) {
+                        int row = rows[i];
+                        selector.offer(snapshot.id(row),
+                                VectorMath.dot(data, row * dimension, queries, queryOffset, dimension));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.moleep.toeic_master.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * 임베딩 BYTEA 직렬화 형식.
+ * <pre>
+ * byte  format          FLOAT32(0x01) | FLOAT16(0x02)
+ * ...   values          little-endian, 차원 = 나머지 길이 / 원소 크기
+ * </pre>
+ * 헤더가 붙은 값의 길이는 4의 배수가 될 수 없으므로, 길이가 4의 배수면 헤더 없는 이전 형식(float32 배열)으로 읽는다.
+ */
+public final class EmbeddingCodec {
+
+    public enum Format {
+        FLOAT32((byte) 0x01, Float.BYTES),
+        // IEEE 754 binary16. 크기는 절반, 정규화된 임베딩 기준 원소 오차 약 1e-3 이하
+        FLOAT16((byte) 0x02, Short.BYTES);
+
+        private final byte tag;
+        private final int elementBytes;
+
+        Format(byte tag, int elementBytes) {
+            this.tag = tag;
+            this.elementBytes = elementBytes;
+        }
+    }
+
+    private static final int HEADER_BYTES = 1;
+
+    private EmbeddingCodec() {
+    }
+
+    public static byte[] encode(float[] values, Format format) {
+        byte[] bytes = new byte[HEADER_BYTES + values.length * format.elementBytes];
+        bytes[0] = format.tag;
+        ByteBuffer payload = payload(bytes, HEADER_BYTES);
+        switch (format) {
+            case FLOAT32 -> payload.asFloatBuffer().put(values);
+            case FLOAT16 -> {
+                short[] halves = new short[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    halves[i] = Float.floatToFloat16(values[i]);
+                }
+                payload.asShortBuffer().put(halves);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * encode 결과 또는 이전 형식(헤더 없는 float32 배열)을 읽는다. 알 수 없는 형식이면 IllegalArgumentException
+     */
+    public static float[] decode(byte[] bytes) {
+        if (bytes.length % Float.BYTES == 0) {
+            float[] values = new float[bytes.length / Float.BYTES];
+            payload(bytes, 0).asFloatBuffer().get(values);
+            return values;
+        }
+        Format format = formatOf(bytes[0]);
+        int payloadBytes = bytes.length - HEADER_BYTES;
+        if (payloadBytes % format.elementBytes != 0) {
+            throw new IllegalArgumentException("Corrupted " + format + " embedding of " + bytes.length + " bytes");
+        }
+        float[] values = new float[payloadBytes / format.elementBytes];
+        ByteBuffer payload = payload(bytes, HEADER_BYTES);
+        switch (format) {
+            case FLOAT32 -> payload.asFloatBuffer().get(values);
+            case FLOAT16 -> {
+                ShortBuffer halves = payload.asShortBuffer();
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Float.float16ToFloat(halves.get(i));
+                }
+            }
+        }
+        return values;
+    }
+
+    private static Format formatOf(byte tag) {
+        for (Format format : Format.values()) {
+            if (format.tag == tag) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown embedding format " + tag);
+    }
+
+    private static ByteBuffer payload(byte[] bytes, int offset) {
+        return ByteBuffer.wrap(bytes, offset, bytes.length - offset).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,226 @@
+package com.moleep.toeic_master.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 임베딩 행렬과 HNSW 근사 최근접 이웃 그래프를 함께 관리한다.
+ * 그래프는 put 시 점진적으로 갱신되고, 삭제는 행렬의 삭제 표시로 처리된다.
+ * 그래프가 없거나 재구축 중이거나 데이터가 적으면 행렬 전수 검색으로 대체한다.
+ * 전수 검색은 quantized 옵션이 켜져 있으면 int8 1차 스캔 + float 재정렬로 동작한다.
+ */
+@Slf4j
+public class EmbeddingIndex {
+
+    /**
+     * @param annEnabled     HNSW 사용 여부
+     * @param m              노드당 이웃 수 (레벨 0은 2배)
+     * @param efConstruction 삽입 시 탐색 폭
+     * @param efSearch       검색 시 탐색 폭 (클수록 재현율↑, 지연↑)
+     * @param minAnnSize     이 개수 미만이면 전수 검색
+     * @param quantized      전수 검색 1차 스캔을 int8 코드로 수행할지 여부
+     * @param rerankSize     int8 스캔 후 float 원본으로 다시 계산할 후보 수
+     */
+    public record Options(boolean annEnabled, int m, int efConstruction, int efSearch, int minAnnSize,
+                          boolean quantized, int rerankSize) {
+
+        public static final Options EXACT = new Options(false, 16, 100, 64, Integer.MAX_VALUE, false, 0);
+    }
+
+    // 필터를 통과하는 행이 이 비율 미만이면 그래프 탐색보다 전수 검색이 빠르고 정확함
+    private static final double MIN_FILTER_SELECTIVITY = 0.05;
+
+    private final String name;
+    private final Options options;
+    private final EmbeddingMatrix matrix;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor;
+
+    private volatile HnswGraph graph;
+    private volatile int efSearch;
+
+    // 초기 적재가 끝나 rebuildAsync()가 처음 호출되기 전에는 put마다 그래프를 건드리지 않음
+    private volatile boolean graphActive;
+
+    public EmbeddingIndex(String name, Options options) {
+        this.name = name;
+        this.options = options;
+        this.efSearch = options.efSearch();
+        this.matrix = new EmbeddingMatrix(options.quantized());
+        this.rebuildExecutor = options.annEnabled()
+                ? Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "hnsw-rebuild-" + name);
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * 벡터를 새 행으로 추가하고 행 번호를 반환한다. 저장하지 않은 경우 -1
+     */
+    public synchronized int put(long id, float[] vector) {
+        int row = matrix.put(id, vector);
+        if (row < 0 || !options.annEnabled() || !graphActive) {
+            return row;
+        }
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        HnswGraph current = graph;
+        if (current != null && current.generation() == snapshot.generation()) {
+            current.insert(row, snapshot);
+        } else {
+            rebuildAsync();
+        }
+        return row;
+    }
+
+    public void remove(long id) {
+        // 그래프 노드는 경로로 남겨두고 행렬의 삭제 표시로 결과에서 제외
+        matrix.remove(id);
+    }
+
+    public float[] get(long id) {
+        return matrix.get(id);
+    }
+
+    public int rowOf(long id) {
+        return matrix.rowOf(id);
+    }
+
+    public EmbeddingMatrix.Snapshot snapshot() {
+        return matrix.snapshot();
+    }
+
+    public int size() {
+        return matrix.size();
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = Math.max(1, efSearch);
+    }
+
+    /**
+     * query(정규화된 벡터)와 가장 유사한 상위 k개
+     */
+    public TopKSelector search(float[] query, int k) {
+        return search(matrix.snapshot(), query, k, null);
+    }
+
+    /**
+     * snapshot 기준으로 mask에 켜진 행 중 query와 가장 유사한 상위 k개.
+     * mask는 같은 스냅샷의 행 번호 기준이어야 하며 null이면 전체 행이 대상이다.
+     * k는 살아 있는 행 수로 제한된다 (그래프 탐색의 빔 크기도 k 이상이 되므로).
+     */
+    public TopKSelector search(EmbeddingMatrix.Snapshot snapshot, float[] query, int k, long[] mask) {
+        k = Math.min(k, snapshot.liveCount());
+        HnswGraph current = graph;
+        if (useGraph(snapshot, current, mask)) {
+            TopKSelector.RowFilter filter = mask == null ? null : row -> RowBits.get(mask, row);
+            TopKSelector result = current.search(snapshot, query, k, efSearch, filter);
+            if (result != null) {
+                return result;
+            }
+        }
+        return TopKSelector.scan(snapshot, query, k, mask, options.rerankSize());
+    }
+
+    /**
+     * 살아 있는 행 중 samples개를 질의로 삼아 search() 결과가 float 전수 검색 상위 k개를
+     * 얼마나 포함하는지(recall@k) 측정한다. 행이 없으면 1.0
+     */
+    public double sampleRecall(int samples, int k) {
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        if (snapshot.isEmpty() || samples <= 0 || k <= 0) {
+            return 1.0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int dimension = snapshot.dimension();
+        long found = 0;
+        long expected = 0;
+        for (int i = 0; i < samples; i++) {
+            int row = random.nextInt(snapshot.rows());
+            if (!snapshot.isLive(row)) {
+                continue;
+            }
+            float[] query = Arrays.copyOfRange(snapshot.data(), row * dimension, (row + 1) * dimension);
+            long[] exact = TopKSelector.scan(snapshot, query, k, null, 0).sortedIds();
+            long[] approximate = search(snapshot, query, k, null).sortedIds();
+            Arrays.sort(approximate);
+            for (long id : exact) {
+                if (Arrays.binarySearch(approximate, id) >= 0) {
+                    found++;
+                }
+            }
+            expected += exact.length;
+        }
+        return expected == 0 ? 1.0 : (double) found / expected;
+    }
+
+    private boolean useGraph(EmbeddingMatrix.Snapshot snapshot, HnswGraph current, long[] mask) {
+        if (current == null || current.generation() != snapshot.generation()) {
+            return false;
+        }
+        if (snapshot.liveCount() < options.minAnnSize()) {
+            return false;
+        }
+        // 필터를 통과하는 행이 적으면 비트셋 순회가 그래프 탐색보다 빠르고 정확함
+        return mask == null || RowBits.cardinality(mask) >= snapshot.liveCount() * MIN_FILTER_SELECTIVITY;
+    }
+
+    /**
+     * 그래프를 백그라운드에서 다시 만든다. 완료 전까지 검색은 전수 검색으로 동작한다.
+     */
+    public void rebuildAsync() {
+        if (!options.annEnabled()) {
+            return;
+        }
+        graphActive = true;
+        if (matrix.size() < options.minAnnSize()) {
+            return;
+        }
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            while (true) {
+                long start = System.currentTimeMillis();
+                EmbeddingMatrix.Snapshot base = matrix.snapshot();
+                HnswGraph rebuilt = new HnswGraph(options.m(), options.efConstruction(), base.generation());
+                for (int row = 0; row < base.rows(); row++) {
+                    if (base.isLive(row)) {
+                        rebuilt.insert(row, base);
+                    }
+                }
+
+                // 구축 중 추가된 행을 따라잡은 뒤 교체. 그 사이 압축이 일어났으면 처음부터 다시
+                synchronized (this) {
+                    EmbeddingMatrix.Snapshot latest = matrix.snapshot();
+                    if (latest.generation() != base.generation()) {
+                        continue;
+                    }
+                    for (int row = base.rows(); row < latest.rows(); row++) {
+                        if (latest.isLive(row)) {
+                            rebuilt.insert(row, latest);
+                        }
+                    }
+                    graph = rebuilt;
+                }
+                log.info("Rebuilt {} HNSW index with {} nodes in {} ms",
+                        name, rebuilt.nodeCount(), System.currentTimeMillis() - start);
+                return;
+            }
+        } catch (Exception e) {
+            log.error("Failed to rebuild {} HNSW index", name, e);
+        } finally {
+            rebuildScheduled.set(false);
+        }
+    }
+}
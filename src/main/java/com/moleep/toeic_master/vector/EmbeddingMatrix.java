@@ -0,0 +1,315 @@
+package com.moleep.toeic_master.vector;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 임베딩 벡터를 하나의 float 배열에 행 단위로 저장하는 행렬.
+ * 삽입 시 단위 벡터로 정규화하므로 코사인 유사도는 내적만으로 계산된다.
+ * 이미 기록된 행은 덮어쓰지 않는다. 수정은 새 행을 추가하고 이전 행을 삭제 표시하며,
+ * 삭제 표시(live 비트셋)는 복사본에서 바꾼 뒤, 배열 확장/압축은 새 배열에서 수행한 뒤 스냅샷을 교체한다.
+ * 따라서 snapshot()으로 얻은 뷰는 이후의 put/remove에 영향받지 않고 락 없이 스캔할 수 있다.
+ * 압축으로 행 번호가 바뀌면 generation이 증가하므로, 행 번호를 참조하는 보조 인덱스는 이를 보고 재구축한다.
+ * quantized 모드에서는 각 행을 벡터별 scale/bias를 가진 int8 코드로도 보관해 1차 스캔에 사용한다.
+ */
+public class EmbeddingMatrix {
+
+    private static final int MIN_CAPACITY = 64;
+
+    // 삭제 표시된 행이 이 비율 이상이면 확장 대신 압축
+    private static final double COMPACT_THRESHOLD = 0.25;
+
+    private final boolean quantized;
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public EmbeddingMatrix() {
+        this(false);
+    }
+
+    public EmbeddingMatrix(boolean quantized) {
+        this.quantized = quantized;
+    }
+
+    /**
+     * 벡터를 새 행으로 추가하고 행 번호를 반환한다. 저장하지 않은 경우(영벡터 등) -1
+     */
+    public synchronized int put(long id, float[] vector) {
+        if (vector == null || vector.length == 0) {
+            return -1;
+        }
+        Snapshot current = snapshot;
+        int dimension = current.dimension == 0 ? vector.length : current.dimension;
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                    "Embedding dimension mismatch: expected " + dimension + ", got " + vector.length);
+        }
+
+        float[] normalized = normalize(vector);
+        if (normalized == null) {
+            // 영벡터는 어떤 질의와도 유사도가 0이므로 저장하지 않음
+            remove(id);
+            return -1;
+        }
+
+        current = ensureCapacity(current, dimension);
+        int row = current.rows;
+        System.arraycopy(normalized, 0, current.data, row * dimension, dimension);
+        if (quantized) {
+            quantize(normalized, current, row);
+        }
+        current.ids[row] = id;
+
+        // live 비트셋은 발행된 스냅샷들이 공유하므로 복사본에서 이전 행을 지우고 새 행을 켠 뒤 함께 발행
+        long[] live = current.live.clone();
+        Integer previous = rowById.put(id, row);
+        if (previous != null) {
+            RowBits.clear(live, previous);
+        }
+        RowBits.set(live, row);
+        int liveCount = current.liveCount + (previous == null ? 1 : 0);
+        snapshot = current.withLive(live, row + 1, liveCount);
+        return row;
+    }
+
+    public synchronized void remove(long id) {
+        Integer row = rowById.remove(id);
+        if (row == null) {
+            return;
+        }
+        Snapshot current = snapshot;
+        long[] live = current.live.clone();
+        RowBits.clear(live, row);
+        snapshot = current.withLive(live, current.rows, current.liveCount - 1);
+    }
+
+    /**
+     * 정규화된 벡터의 복사본을 반환한다.
+     */
+    public synchronized float[] get(long id) {
+        Integer row = rowById.get(id);
+        if (row == null) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        int offset = row * current.dimension;
+        return Arrays.copyOfRange(current.data, offset, offset + current.dimension);
+    }
+
+    public synchronized boolean contains(long id) {
+        return rowById.containsKey(id);
+    }
+
+    /**
+     * 현재 스냅샷에서 id의 행 번호. 없으면 -1
+     */
+    public synchronized int rowOf(long id) {
+        Integer row = rowById.get(id);
+        return row == null ? -1 : row;
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public int size() {
+        return snapshot.liveCount;
+    }
+
+    private Snapshot ensureCapacity(Snapshot current, int dimension) {
+        if (current.data != null && current.rows < current.ids.length) {
+            return current;
+        }
+
+        int dead = current.rows - current.liveCount;
+        boolean compact = current.rows > 0 && dead >= current.rows * COMPACT_THRESHOLD;
+        int capacity = compact
+                ? Math.max(MIN_CAPACITY, current.liveCount * 2)
+                : Math.max(MIN_CAPACITY, current.rows * 2);
+
+        float[] data = new float[capacity * dimension];
+        long[] ids = new long[capacity];
+        long[] live = new long[RowBits.words(capacity)];
+        byte[] codes = quantized ? new byte[capacity * dimension] : null;
+        float[] scales = quantized ? new float[capacity] : null;
+        float[] biases = quantized ? new float[capacity] : null;
+
+        int rows = 0;
+        if (compact) {
+            rowById.clear();
+            for (int row = 0; row < current.rows; row++) {
+                if (!RowBits.get(current.live, row)) {
+                    continue;
+                }
+                System.arraycopy(current.data, row * dimension, data, rows * dimension, dimension);
+                if (quantized) {
+                    System.arraycopy(current.codes, row * dimension, codes, rows * dimension, dimension);
+                    scales[rows] = current.scales[row];
+                    biases[rows] = current.biases[row];
+                }
+                ids[rows] = current.ids[row];
+                RowBits.set(live, rows);
+                rowById.put(current.ids[row], rows);
+                rows++;
+            }
+        } else if (current.data != null) {
+            System.arraycopy(current.data, 0, data, 0, current.rows * dimension);
+            System.arraycopy(current.ids, 0, ids, 0, current.rows);
+            System.arraycopy(current.live, 0, live, 0, current.live.length);
+            if (quantized) {
+                System.arraycopy(current.codes, 0, codes, 0, current.rows * dimension);
+                System.arraycopy(current.scales, 0, scales, 0, current.rows);
+                System.arraycopy(current.biases, 0, biases, 0, current.rows);
+            }
+            rows = current.rows;
+        }
+
+        long generation = compact ? current.generation + 1 : current.generation;
+        Snapshot resized = new Snapshot(data, ids, live, codes, scales, biases, rows, current.liveCount,
+                dimension, generation);
+        snapshot = resized;
+        return resized;
+    }
+
+    /**
+     * 벡터의 최솟값~최댓값을 256단계로 나눠 int8 코드로 기록한다.
+     * x ≈ bias + code * scale 이므로 query·x ≈ scale * Σ(query·code) + bias * Σquery
+     */
+    private static void quantize(float[] vector, Snapshot target, int row) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float v : vector) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        float scale = (max - min) / 255f;
+        int offset = row * vector.length;
+        for (int i = 0; i < vector.length; i++) {
+            int level = scale == 0f ? 0 : Math.round((vector[i] - min) / scale);
+            target.codes[offset + i] = (byte) (Math.min(255, level) - 128);
+        }
+        target.scales[row] = scale;
+        target.biases[row] = min + 128f * scale;
+    }
+
+    /**
+     * 단위 벡터로 정규화한 복사본. 영벡터면 null
+     */
+    public static float[] normalize(float[] vector) {
+        double norm = 0.0;
+        for (float v : vector) {
+            norm += (double) v * v;
+        }
+        if (norm == 0.0 || Double.isNaN(norm)) {
+            return null;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    /**
+     * 특정 시점의 행렬 뷰. rows 이후의 행과 삭제 표시된 행은 스캔 대상이 아니다.
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(null, new long[0], new long[0], null, null, null, 0, 0, 0, 0L);
+
+        private final float[] data;
+        private final long[] ids;
+        private final long[] live;
+        private final byte[] codes;
+        private final float[] scales;
+        private final float[] biases;
+        private final int rows;
+        private final int liveCount;
+        private final int dimension;
+        private final long generation;
+
+        private Snapshot(float[] data, long[] ids, long[] live, byte[] codes, float[] scales, float[] biases,
+                         int rows, int liveCount, int dimension, long generation) {
+            this.data = data;
+            this.ids = ids;
+            this.live = live;
+            this.codes = codes;
+            this.scales = scales;
+            this.biases = biases;
+            this.rows = rows;
+            this.liveCount = liveCount;
+            this.dimension = dimension;
+            this.generation = generation;
+        }
+
+        private Snapshot withLive(long[] live, int rows, int liveCount) {
+            return new Snapshot(data, ids, live, codes, scales, biases, rows, liveCount, dimension, generation);
+        }
+
+        public float[] data() {
+            return data;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public int liveCount() {
+            return liveCount;
+        }
+
+        public int dimension() {
+            return dimension;
+        }
+
+        /**
+         * 압축으로 행 번호가 재배치될 때마다 증가
+         */
+        public long generation() {
+            return generation;
+        }
+
+        public long id(int row) {
+            return ids[row];
+        }
+
+        public boolean isLive(int row) {
+            return row < rows && RowBits.get(live, row);
+        }
+
+        /**
+         * 살아 있는 행 비트셋의 복사본 (길이 = rows 기준, rows 이후 비트는 0)
+         */
+        public long[] liveMask() {
+            long[] mask = RowBits.copyOf(live, rows);
+            if ((rows & 63) != 0) {
+                mask[mask.length - 1] &= (1L << rows) - 1;
+            }
+            return mask;
+        }
+
+        public boolean isEmpty() {
+            return liveCount == 0;
+        }
+
+        public float dot(int row, float[] query) {
+            return VectorMath.dot(data, row * dimension, query, 0, dimension);
+        }
+
+        /**
+         * int8 코드가 있는지 여부
+         */
+        public boolean isQuantized() {
+            return codes != null;
+        }
+
+        /**
+         * int8 코드로 계산한 근사 내적. querySum은 query 원소의 합
+         */
+        public float approximateDot(int row, float[] query, float querySum) {
+            return scales[row] * VectorMath.dotInt8(query, codes, row * dimension, dimension) + biases[row] * querySum;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.moleep.toeic_master.vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 임베딩 행렬 스냅샷 파일 (little-endian).
+ * <pre>
+ * int   MAGIC
+ * int   FORMAT_VERSION
+ * int   dimension
+ * int   count
+ * long  highWater      이 시각(epoch ms) 이전의 변경은 모두 포함됨
+ * long  ids[count]
+ * float vectors[count * dimension]   정규화된 벡터
+ * </pre>
+ * 읽기는 FileChannel.map으로 매핑한 버퍼를 그대로 사용하므로 파일 전체를 힙에 올리지 않는다.
+ */
+public final class EmbeddingSnapshotFile {
+
+    private static final int MAGIC = 0x454D4253; // "EMBS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private EmbeddingSnapshotFile() {
+    }
+
+    /**
+     * 매핑된 스냅샷. vectors는 row * dimension 위치부터 한 행씩 읽는다.
+     */
+    public record Mapped(long highWater, int dimension, int count, long[] ids, FloatBuffer vectors) {
+
+        public float[] vector(int row) {
+            float[] vector = new float[dimension];
+            vectors.get(row * dimension, vector);
+            return vector;
+        }
+    }
+
+    /**
+     * snapshot의 살아 있는 행을 임시 파일에 쓴 뒤 원자적으로 교체한다.
+     */
+    public static void write(Path path, EmbeddingMatrix.Snapshot snapshot, long highWater) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int dimension = snapshot.dimension();
+        // 삭제 표시는 이후 remove로 바뀔 수 있으므로 복사본 기준으로 기록
+        long[] live = snapshot.liveMask();
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(dimension)
+                    .putInt(RowBits.cardinality(live))
+                    .putLong(highWater);
+
+            for (int row = 0; row < snapshot.rows(); row++) {
+                if (RowBits.get(live, row)) {
+                    ensureRemaining(channel, buffer, Long.BYTES);
+                    buffer.putLong(snapshot.id(row));
+                }
+            }
+            float[] data = snapshot.data();
+            for (int row = 0; row < snapshot.rows(); row++) {
+                if (!RowBits.get(live, row)) {
+                    continue;
+                }
+                int offset = row * dimension;
+                for (int i = 0; i < dimension; i++) {
+                    ensureRemaining(channel, buffer, Float.BYTES);
+                    buffer.putFloat(data[offset + i]);
+                }
+            }
+            flush(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 스냅샷 파일을 읽기 전용으로 매핑한다. 형식이 맞지 않으면 IOException
+     */
+    public static Mapped map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Unsupported snapshot file size " + size + ": " + path);
+            }
+            // 매핑은 채널을 닫은 뒤에도 유효함
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.getInt() != MAGIC) {
+                throw new IOException("Not an embedding snapshot: " + path);
+            }
+            int version = mapped.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+            int dimension = mapped.getInt();
+            int count = mapped.getInt();
+            long highWater = mapped.getLong();
+
+            long expected = HEADER_BYTES + (long) count * Long.BYTES + (long) count * dimension * Float.BYTES;
+            if (dimension < 0 || count < 0 || size != expected) {
+                throw new IOException("Corrupted snapshot file: " + path);
+            }
+
+            long[] ids = new long[count];
+            mapped.asLongBuffer().get(ids);
+            mapped.position(HEADER_BYTES + count * Long.BYTES);
+            FloatBuffer vectors = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            return new Mapped(highWater, dimension, count, ids, vectors);
+        }
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,402 @@
+package com.moleep.toeic_master.vector;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * EmbeddingMatrix 행을 노드로 사용하는 HNSW(Hierarchical Navigable Small World) 그래프.
+ * 벡터는 복사하지 않고 스냅샷의 행렬에서 직접 읽으며, 유사도는 정규화된 벡터의 내적이다.
+ * 삭제된 행은 그래프에 남아 경로로만 쓰이고 결과에서는 제외된다.
+ *
+ * insert는 EmbeddingIndex 락 안에서만 호출된다. search는 락 없이 동시에 실행되며,
+ * 이웃 목록은 항상 새 배열로 교체하므로 읽는 쪽은 이전 또는 새 목록 중 하나를 본다.
+ * 행렬 압축으로 행 번호가 바뀌면(generation 변경) 그래프는 폐기하고 다시 만든다.
+ */
+final class HnswGraph {
+
+    private static final int[] NO_NEIGHBORS = new int[0];
+    private static final ThreadLocal<VisitedSet> VISITED = ThreadLocal.withInitial(VisitedSet::new);
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final long generation;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    // links[row][level] = 이웃 행 번호
+    private volatile int[][][] links = new int[0][][];
+    private volatile int entryPoint = -1;
+    private volatile int maxLevel = -1;
+    private int nodeCount;
+
+    HnswGraph(int m, int efConstruction, long generation) {
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(m);
+        this.generation = generation;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    void insert(int row, EmbeddingMatrix.Snapshot snapshot) {
+        int dimension = snapshot.dimension();
+        float[] vector = Arrays.copyOfRange(snapshot.data(), row * dimension, (row + 1) * dimension);
+        int level = randomLevel();
+
+        ensureCapacity(row + 1);
+        int[][] nodeLinks = new int[level + 1][];
+        Arrays.fill(nodeLinks, NO_NEIGHBORS);
+        links[row] = nodeLinks;
+        nodeCount++;
+
+        int entry = entryPoint;
+        int top = maxLevel;
+        if (entry < 0) {
+            maxLevel = level;
+            entryPoint = row;
+            return;
+        }
+
+        for (int l = top; l > level; l--) {
+            entry = greedyClosest(snapshot, vector, entry, l);
+        }
+
+        for (int l = Math.min(level, top); l >= 0; l--) {
+            NodeHeap candidates = searchLayer(snapshot, vector, entry, l, efConstruction, null);
+            int maxConnections = l == 0 ? maxM0 : m;
+            int[] selected = selectNeighbors(snapshot, candidates.drainDescending(), m);
+            nodeLinks[l] = selected;
+            for (int neighbor : selected) {
+                connect(snapshot, neighbor, row, l, maxConnections);
+            }
+            if (selected.length > 0) {
+                entry = selected[0];
+            }
+        }
+
+        if (level > top) {
+            maxLevel = level;
+            entryPoint = row;
+        }
+    }
+
+    /**
+     * query와 가장 유사한 상위 k개. 진입점이 스냅샷 범위 밖이면 null (호출 측에서 전수 검색)
+     */
+    TopKSelector search(EmbeddingMatrix.Snapshot snapshot, float[] query, int k, int ef,
+                        TopKSelector.RowFilter filter) {
+        int entry = entryPoint;
+        int top = maxLevel;
+        if (entry < 0 || entry >= snapshot.rows()) {
+            return null;
+        }
+        for (int l = top; l > 0; l--) {
+            entry = greedyClosest(snapshot, query, entry, l);
+        }
+
+        TopKSelector.RowFilter accept = row -> snapshot.isLive(row) && (filter == null || filter.accept(row));
+        NodeHeap results = searchLayer(snapshot, query, entry, 0, Math.max(ef, k), accept);
+
+        TopKSelector selector = new TopKSelector(k);
+        int[] rows = results.nodes;
+        float[] scores = results.scores;
+        for (int i = 0; i < results.size; i++) {
+            selector.offer(snapshot.id(rows[i]), scores[i]);
+        }
+        return selector;
+    }
+
+    private int greedyClosest(EmbeddingMatrix.Snapshot snapshot, float[] query, int entry, int level) {
+        int best = entry;
+        float bestScore = score(snapshot, query, entry);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : neighbors(best, level)) {
+                if (neighbor >= snapshot.rows()) {
+                    continue;
+                }
+                float s = score(snapshot, query, neighbor);
+                if (s > bestScore) {
+                    bestScore = s;
+                    best = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 한 레벨에서 ef 크기의 빔 탐색. accept가 null이면 모든 노드를 결과로 인정한다.
+     * accept에 걸리지 않는 노드도 경로로는 계속 탐색한다.
+     */
+    private NodeHeap searchLayer(EmbeddingMatrix.Snapshot snapshot, float[] query, int entry, int level, int ef,
+                                 TopKSelector.RowFilter accept) {
+        VisitedSet visited = VISITED.get();
+        visited.reset(snapshot.rows());
+
+        NodeHeap candidates = new NodeHeap(ef * 2, true);
+        NodeHeap results = new NodeHeap(ef + 1, false);
+
+        float entryScore = score(snapshot, query, entry);
+        visited.mark(entry);
+        candidates.push(entry, entryScore);
+        if (accept == null || accept.accept(entry)) {
+            results.push(entry, entryScore);
+        }
+
+        while (candidates.size > 0) {
+            float candidateScore = candidates.topScore();
+            if (results.size >= ef && candidateScore < results.topScore()) {
+                break;
+            }
+            int current = candidates.pop();
+            for (int neighbor : neighbors(current, level)) {
+                if (neighbor >= snapshot.rows() || !visited.mark(neighbor)) {
+                    continue;
+                }
+                float s = score(snapshot, query, neighbor);
+                if (results.size < ef || s > results.topScore()) {
+                    candidates.push(neighbor, s);
+                    if (accept == null || accept.accept(neighbor)) {
+                        results.push(neighbor, s);
+                        if (results.size > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * HNSW 논문의 휴리스틱: 이미 고른 이웃보다 기준 벡터에 더 가까운 후보를 우선 선택해
+     * 한쪽으로 몰리지 않은 이웃 목록을 만든다. 부족하면 남은 후보 중 가까운 순으로 채운다.
+     */
+    private int[] selectNeighbors(EmbeddingMatrix.Snapshot snapshot, NodeHeap sortedDescending, int max) {
+        int count = sortedDescending.size;
+        if (count <= max) {
+            return Arrays.copyOf(sortedDescending.nodes, count);
+        }
+        float[] data = snapshot.data();
+        int dimension = snapshot.dimension();
+        int[] selected = new int[max];
+        boolean[] taken = new boolean[count];
+        int size = 0;
+        for (int i = 0; i < count && size < max; i++) {
+            int candidate = sortedDescending.nodes[i];
+            float toBase = sortedDescending.scores[i];
+            boolean diverse = true;
+            for (int j = 0; j < size; j++) {
+                float toSelected = VectorMath.dot(data, candidate * dimension, data, selected[j] * dimension,
+                        dimension);
+                if (toSelected > toBase) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[size++] = candidate;
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < count && size < max; i++) {
+            if (!taken[i]) {
+                selected[size++] = sortedDescending.nodes[i];
+            }
+        }
+        return selected;
+    }
+
+    private void connect(EmbeddingMatrix.Snapshot snapshot, int node, int newNeighbor, int level, int maxConnections) {
+        int[][] nodeLinks = links[node];
+        if (nodeLinks == null || level >= nodeLinks.length) {
+            return;
+        }
+        int[] current = nodeLinks[level];
+        if (current.length < maxConnections) {
+            int[] extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = newNeighbor;
+            nodeLinks[level] = extended;
+            return;
+        }
+
+        // 이웃이 가득 차면 node 기준으로 다시 골라 가장 먼 연결을 끊음
+        float[] data = snapshot.data();
+        int dimension = snapshot.dimension();
+        float[] base = Arrays.copyOfRange(data, node * dimension, (node + 1) * dimension);
+        NodeHeap pool = new NodeHeap(current.length + 1, false);
+        for (int neighbor : current) {
+            pool.push(neighbor, score(snapshot, base, neighbor));
+        }
+        pool.push(newNeighbor, score(snapshot, base, newNeighbor));
+        nodeLinks[level] = selectNeighbors(snapshot, pool.drainDescending(), maxConnections);
+    }
+
+    private int[] neighbors(int node, int level) {
+        int[][][] current = links;
+        if (node >= current.length) {
+            return NO_NEIGHBORS;
+        }
+        int[][] nodeLinks = current[node];
+        if (nodeLinks == null || level >= nodeLinks.length) {
+            return NO_NEIGHBORS;
+        }
+        return nodeLinks[level];
+    }
+
+    private void ensureCapacity(int rows) {
+        int[][][] current = links;
+        if (rows <= current.length) {
+            return;
+        }
+        links = Arrays.copyOf(current, Math.max(rows, Math.max(64, current.length * 2)));
+    }
+
+    private int randomLevel() {
+        double u = 1.0 - random.nextDouble();
+        return (int) Math.floor(-Math.log(u) * levelMultiplier);
+    }
+
+    private static float score(EmbeddingMatrix.Snapshot snapshot, float[] query, int row) {
+        int dimension = snapshot.dimension();
+        return VectorMath.dot(snapshot.data(), row * dimension, query, 0, dimension);
+    }
+
+    /**
+     * (행, 점수) 이진 힙. max가 true면 최대 힙, false면 최소 힙
+     */
+    private static final class NodeHeap {
+
+        private final boolean max;
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+
+        NodeHeap(int capacity, boolean max) {
+            this.max = max;
+            this.nodes = new int[Math.max(4, capacity)];
+            this.scores = new float[nodes.length];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            nodes[size] = node;
+            scores[size] = score;
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!before(index, parent)) {
+                    break;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        float topScore() {
+            return scores[0];
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            nodes[0] = nodes[size];
+            scores[0] = scores[size];
+            int index = 0;
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    break;
+                }
+                int child = left;
+                if (left + 1 < size && before(left + 1, left)) {
+                    child = left + 1;
+                }
+                if (!before(child, index)) {
+                    break;
+                }
+                swap(index, child);
+                index = child;
+            }
+            return top;
+        }
+
+        /**
+         * 점수 내림차순으로 정렬된 새 힙(배열 순서 = 정렬 순서)을 만든다.
+         */
+        NodeHeap drainDescending() {
+            int count = size;
+            int[] sortedNodes = new int[count];
+            float[] sortedScores = new float[count];
+            for (int i = 0; i < count; i++) {
+                // 최대 힙은 큰 값부터, 최소 힙은 작은 값부터 나오므로 채우는 방향을 바꿈
+                int index = max ? i : count - 1 - i;
+                sortedScores[index] = scores[0];
+                sortedNodes[index] = pop();
+            }
+            NodeHeap sorted = new NodeHeap(0, true);
+            sorted.nodes = sortedNodes;
+            sorted.scores = sortedScores;
+            sorted.size = count;
+            return sorted;
+        }
+
+        private boolean before(int i, int j) {
+            return max ? scores[i] > scores[j] : scores[i] < scores[j];
+        }
+
+        private void swap(int i, int j) {
+            int node = nodes[i];
+            nodes[i] = nodes[j];
+            nodes[j] = node;
+            float score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
+    }
+
+    /**
+     * 스레드별로 재사용하는 방문 표시. 검색마다 배열을 지우지 않도록 스탬프 값으로 구분한다.
+     */
+    private static final class VisitedSet {
+
+        private int[] marks = new int[0];
+        private int stamp;
+
+        void reset(int rows) {
+            if (marks.length < rows) {
+                marks = new int[Math.max(rows, marks.length * 2)];
+                stamp = 0;
+            }
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                stamp = 1;
+            }
+        }
+
+        /**
+         * 처음 방문이면 true
+         */
+        boolean mark(int row) {
+            if (marks[row] == stamp) {
+                return false;
+            }
+            marks[row] = stamp;
+            return true;
+        }
+    }
+}
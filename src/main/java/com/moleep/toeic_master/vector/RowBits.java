@@ -0,0 +1,81 @@
+package com.moleep.toeic_master.vector;
+
+/**
+ * 행 번호 비트셋(long[] 워드 배열) 연산.
+ * java.util.BitSet과 달리 배열을 직접 노출하므로 스냅샷 간에 공유하거나 워드 단위로 교집합을 구할 수 있다.
+ */
+public final class RowBits {
+
+    private RowBits() {
+    }
+
+    public static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    public static void set(long[] words, int bit) {
+        words[bit >>> 6] |= 1L << bit;
+    }
+
+    public static void clear(long[] words, int bit) {
+        words[bit >>> 6] &= ~(1L << bit);
+    }
+
+    public static boolean get(long[] words, int bit) {
+        int index = bit >>> 6;
+        return index < words.length && (words[index] & (1L << bit)) != 0;
+    }
+
+    /**
+     * target &= other (other가 짧으면 나머지는 0)
+     */
+    public static void and(long[] target, long[] other) {
+        int shared = Math.min(target.length, other.length);
+        for (int i = 0; i < shared; i++) {
+            target[i] &= other[i];
+        }
+        for (int i = shared; i < target.length; i++) {
+            target[i] = 0L;
+        }
+    }
+
+    /**
+     * target |= other
+     */
+    public static void or(long[] target, long[] other) {
+        int shared = Math.min(target.length, other.length);
+        for (int i = 0; i < shared; i++) {
+            target[i] |= other[i];
+        }
+    }
+
+    public static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * 길이가 words(bits)인 복사본 (모자라면 0으로 채움)
+     */
+    public static long[] copyOf(long[] words, int bits) {
+        long[] copy = new long[words(bits)];
+        System.arraycopy(words, 0, copy, 0, Math.min(words.length, copy.length));
+        return copy;
+    }
+
+    /**
+     * 길이가 words(bits) 이상이 되도록 확장한 배열 (충분하면 그대로 반환)
+     */
+    public static long[] ensureCapacity(long[] words, int bits) {
+        int required = words(bits);
+        if (words.length >= required) {
+            return words;
+        }
+        long[] grown = new long[Math.max(required, words.length * 2)];
+        System.arraycopy(words, 0, grown, 0, words.length);
+        return grown;
+    }
+}
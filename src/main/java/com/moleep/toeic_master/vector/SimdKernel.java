@@ -0,0 +1,95 @@
+package com.moleep.toeic_master.vector;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API 기반 커널. jdk.incubator.vector 모듈이 로드된 경우에만 VectorMath에서 호출된다.
+ * 인큐베이터 모듈 경고를 피하기 위해 기본 빌드에서는 제외되고 -Psimd 빌드에서만 컴파일된다.
+ */
+final class SimdKernel implements SimilarityKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    // int8 커널은 8개 바이트를 8개 float 레인으로 변환하므로 256비트 이상에서만 사용
+    private static final VectorSpecies<Float> INT8_FLOATS = FloatVector.SPECIES_256;
+    private static final VectorSpecies<Byte> INT8_BYTES = ByteVector.SPECIES_64;
+
+    SimdKernel() {
+    }
+
+    @Override
+    public int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public boolean supportsInt8() {
+        return SPECIES.vectorBitSize() >= INT8_FLOATS.vectorBitSize();
+    }
+
+    @Override
+    public float dotInt8(float[] query, byte[] codes, int codeOffset, int length) {
+        FloatVector acc = FloatVector.zero(INT8_FLOATS);
+        int upper = INT8_FLOATS.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += INT8_FLOATS.length()) {
+            FloatVector vq = FloatVector.fromArray(INT8_FLOATS, query, i);
+            FloatVector vc = (FloatVector) ByteVector.fromArray(INT8_BYTES, codes, codeOffset + i)
+                    .convertShape(VectorOperators.B2F, INT8_FLOATS, 0);
+            acc = vq.fma(vc, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += query[i] * codes[codeOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double cosine(float[] a, float[] b) {
+        FloatVector dotAcc = FloatVector.zero(SPECIES);
+        FloatVector normAAcc = FloatVector.zero(SPECIES);
+        FloatVector normBAcc = FloatVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(a.length);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+            dotAcc = va.fma(vb, dotAcc);
+            normAAcc = va.fma(va, normAAcc);
+            normBAcc = vb.fma(vb, normBAcc);
+        }
+        float dotProduct = dotAcc.reduceLanes(VectorOperators.ADD);
+        float normA = normAAcc.reduceLanes(VectorOperators.ADD);
+        float normB = normBAcc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0f || normB == 0f) {
+            return 0.0;
+        }
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+}
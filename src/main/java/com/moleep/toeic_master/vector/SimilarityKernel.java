@@ -0,0 +1,17 @@
+package com.moleep.toeic_master.vector;
+
+/**
+ * VectorMath가 위임하는 SIMD 커널. 구현(SimdKernel)은 -Psimd 빌드에서만 포함되므로 이름으로 로드한다.
+ */
+interface SimilarityKernel {
+
+    int lanes();
+
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    boolean supportsInt8();
+
+    float dotInt8(float[] query, byte[] codes, int codeOffset, int length);
+
+    double cosine(float[] a, float[] b);
+}
@@ -0,0 +1,270 @@
+package com.moleep.toeic_master.vector;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * (id, score) 쌍 중 점수가 가장 높은 k개를 고르는 고정 크기 최소 힙.
+ * 원시 타입 배열만 사용하므로 후보마다 객체를 만들지 않고, 전체 정렬 없이 O(n log k)로 동작한다.
+ */
+public final class TopKSelector {
+
+    // 이 행 수 이상이면 ForkJoin 청크로 나눠 병렬 스캔
+    static final int PARALLEL_THRESHOLD = 65_536;
+    static final int CHUNK_ROWS = 16_384;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private long[] ids;
+    private float[] scores;
+    private int size;
+    private boolean sorted;
+
+    public TopKSelector(int k) {
+        this.k = Math.max(0, k);
+        // k가 후보 수보다 훨씬 클 수 있으므로 미리 k칸을 잡지 않고 채워지는 만큼 늘림
+        int capacity = Math.min(this.k, INITIAL_CAPACITY);
+        this.ids = new long[capacity];
+        this.scores = new float[capacity];
+    }
+
+    /**
+     * 행 필터. HNSW 탐색에서 결과로 인정할 행을 고른다.
+     */
+    @FunctionalInterface
+    public interface RowFilter {
+        boolean accept(int row);
+    }
+
+    /**
+     * 스냅샷의 행과 query(정규화된 벡터)의 내적을 계산해 상위 k개를 고른다.
+     * mask가 null이면 살아 있는 모든 행, 아니면 mask에 켜진 살아 있는 행만 계산한다.
+     */
+    public static TopKSelector scan(EmbeddingMatrix.Snapshot snapshot, float[] query, int k, long[] mask) {
+        return scan(snapshot, query, k, mask, 0);
+    }
+
+    /**
+     * rerank > k 이고 스냅샷에 int8 코드가 있으면 근사 내적으로 상위 rerank개 행을 먼저 고른 뒤
+     * float 원본으로 다시 계산해 상위 k개를 반환한다. 그 외에는 float 원본으로 전수 계산한다.
+     * k는 살아 있는 행 수로 제한된다.
+     */
+    public static TopKSelector scan(EmbeddingMatrix.Snapshot snapshot, float[] query, int k, long[] mask,
+                                    int rerank) {
+        long[] rows = snapshot.liveMask();
+        if (mask != null) {
+            RowBits.and(rows, mask);
+        }
+        int live = snapshot.liveCount();
+        k = Math.min(k, live);
+        // 후보가 rerank개 이하면 근사 단계가 걸러내는 행이 없으므로 바로 float로 계산
+        boolean approximate = snapshot.isQuantized() && rerank > k && rerank < live;
+        int width = approximate ? rerank : k;
+        TopKSelector selector;
+        if (snapshot.rows() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            selector = ForkJoinPool.commonPool()
+                    .invoke(new ScanTask(snapshot, query, width, rows, 0, rows.length, approximate));
+        } else {
+            selector = scanWords(snapshot, query, width, rows, 0, rows.length, approximate);
+        }
+        return approximate ? rerank(snapshot, query, k, selector) : selector;
+    }
+
+    /**
+     * rows 비트셋의 [fromWord, toWord) 구간에 켜진 행만 계산.
+     * approximate면 int8 근사 내적을 쓰고 id 대신 행 번호를 담는다.
+     */
+    static TopKSelector scanWords(EmbeddingMatrix.Snapshot snapshot, float[] query, int k, long[] rows,
+                                  int fromWord, int toWord, boolean approximate) {
+        TopKSelector selector = new TopKSelector(k);
+        if (k == 0) {
+            return selector;
+        }
+        float[] data = snapshot.data();
+        int dimension = snapshot.dimension();
+        float querySum = approximate ? sum(query) : 0f;
+        for (int w = fromWord; w < toWord; w++) {
+            long word = rows[w];
+            while (word != 0) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (approximate) {
+                    selector.offer(row, snapshot.approximateDot(row, query, querySum));
+                } else {
+                    selector.offer(snapshot.id(row), VectorMath.dot(data, row * dimension, query, 0, dimension));
+                }
+            }
+        }
+        return selector;
+    }
+
+    /**
+     * 행 번호를 담은 후보를 float 원본 내적으로 다시 계산해 상위 k개 id를 고른다.
+     */
+    private static TopKSelector rerank(EmbeddingMatrix.Snapshot snapshot, float[] query, int k,
+                                       TopKSelector candidates) {
+        TopKSelector selector = new TopKSelector(k);
+        for (int i = 0; i < candidates.size; i++) {
+            int row = (int) candidates.ids[i];
+            selector.offer(snapshot.id(row), snapshot.dot(row, query));
+        }
+        return selector;
+    }
+
+    private static float sum(float[] values) {
+        float sum = 0f;
+        for (float value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    public void offer(long id, float score) {
+        if (size < k) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (k > 0 && score > scores[0]) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+
+    public void merge(TopKSelector other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.ids[i], other.scores[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 힙이 가득 찼을 때 진입하려면 넘어야 하는 최소 점수
+     */
+    public float threshold() {
+        return size < k ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    /**
+     * 점수 내림차순으로 정렬된 id. 호출 후에는 더 이상 offer 하지 않는다.
+     */
+    public long[] sortedIds() {
+        sortDescending();
+        long[] result = new long[size];
+        System.arraycopy(ids, 0, result, 0, size);
+        return result;
+    }
+
+    /**
+     * 점수 내림차순으로 정렬된 점수. sortedIds()와 같은 순서
+     */
+    public float[] sortedScores() {
+        sortDescending();
+        float[] result = new float[size];
+        System.arraycopy(scores, 0, result, 0, size);
+        return result;
+    }
+
+    private void sortDescending() {
+        if (sorted) {
+            return;
+        }
+        // 힙 정렬: 최솟값을 뒤로 보내면 앞쪽부터 내림차순이 됨
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        sorted = true;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[parent] <= scores[index]) {
+                break;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int limit) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= limit) {
+                break;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < limit && scores[right] < scores[left]) {
+                smallest = right;
+            }
+            if (scores[index] <= scores[smallest]) {
+                break;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(k, Math.max(INITIAL_CAPACITY, (long) ids.length * 2));
+        ids = Arrays.copyOf(ids, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+    }
+
+    private void swap(int i, int j) {
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        float score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    static final class ScanTask extends RecursiveTask<TopKSelector> {
+
+        private static final int CHUNK_WORDS = CHUNK_ROWS / 64;
+
+        private final EmbeddingMatrix.Snapshot snapshot;
+        private final float[] query;
+        private final int k;
+        private final long[] rows;
+        private final int fromWord;
+        private final int toWord;
+        private final boolean approximate;
+
+        ScanTask(EmbeddingMatrix.Snapshot snapshot, float[] query, int k, long[] rows,
+                         int fromWord, int toWord, boolean approximate) {
+            this.snapshot = snapshot;
+            this.query = query;
+            this.k = k;
+            this.rows = rows;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+            this.approximate = approximate;
+        }
+
+        @Override
+        protected TopKSelector compute() {
+            if (toWord - fromWord <= CHUNK_WORDS) {
+                return scanWords(snapshot, query, k, rows, fromWord, toWord, approximate);
+            }
+            int mid = (fromWord + toWord) >>> 1;
+            ScanTask left = new ScanTask(snapshot, query, k, rows, fromWord, mid, approximate);
+            ScanTask right = new ScanTask(snapshot, query, k, rows, mid, toWord, approximate);
+            left.fork();
+            TopKSelector result = right.compute();
+            result.merge(left.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.moleep.toeic_master.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 임베딩 유사도 계산 커널.
+ * SimdKernel을 포함해 빌드(-Psimd)하고 jdk.incubator.vector 모듈이 활성화된 런타임
+ * (--add-modules jdk.incubator.vector)에서는 FloatVector SIMD 구현을 사용하고, 그렇지 않으면 스칼라 구현으로 동작한다.
+ */
+@Slf4j
+public final class VectorMath {
+
+    private static final String SIMD_KERNEL_CLASS = "com.moleep.toeic_master.vector.SimdKernel";
+
+    // 구현이 하나뿐인 static final 필드이므로 JIT이 호출을 인라인함
+    private static final SimilarityKernel SIMD = loadSimd();
+    private static final boolean SIMD_ENABLED = SIMD != null;
+    private static final boolean SIMD_INT8_ENABLED = SIMD_ENABLED && SIMD.supportsInt8();
+
+    private VectorMath() {
+    }
+
+    public static boolean isSimdEnabled() {
+        return SIMD_ENABLED;
+    }
+
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        if (SIMD_ENABLED) {
+            return SIMD.dot(a, aOffset, b, bOffset, length);
+        }
+        return scalarDot(a, aOffset, b, bOffset, length);
+    }
+
+    public static float dot(float[] a, float[] b) {
+        return dot(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * query와 int8 코드 codes[codeOffset, codeOffset + length)의 내적 (코드는 부호 있는 정수로 취급)
+     */
+    public static float dotInt8(float[] query, byte[] codes, int codeOffset, int length) {
+        if (SIMD_INT8_ENABLED) {
+            return SIMD.dotInt8(query, codes, codeOffset, length);
+        }
+        return scalarDotInt8(query, codes, codeOffset, length);
+    }
+
+    /**
+     * 행 단위로 저장된 matrix의 각 행과 query의 내적을 out에 기록한다.
+     * 행 길이는 query.length, 행 개수는 out.length로 정해진다.
+     */
+    public static void dotProducts(float[] query, float[] matrix, float[] out) {
+        int dimension = query.length;
+        for (int row = 0; row < out.length; row++) {
+            out[row] = dot(matrix, row * dimension, query, 0, dimension);
+        }
+    }
+
+    public static double cosine(float[] a, float[] b) {
+        if (a == null || b == null || a.length != b.length) {
+            return 0.0;
+        }
+        return SIMD_ENABLED ? SIMD.cosine(a, b) : scalarCosine(a, b);
+    }
+
+    static float scalarDot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        // 4개의 독립 누산기로 의존성 체인을 끊어 스칼라 경로도 파이프라인을 채움
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        int upper = length & ~3;
+        for (; i < upper; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    static float scalarDotInt8(float[] query, byte[] codes, int codeOffset, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        int upper = length & ~3;
+        for (; i < upper; i += 4) {
+            s0 += query[i] * codes[codeOffset + i];
+            s1 += query[i + 1] * codes[codeOffset + i + 1];
+            s2 += query[i + 2] * codes[codeOffset + i + 2];
+            s3 += query[i + 3] * codes[codeOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += query[i] * codes[codeOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    static double scalarCosine(float[] a, float[] b) {
+        float dotProduct = 0f;
+        float normA = 0f;
+        float normB = 0f;
+        for (int i = 0; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0f || normB == 0f) {
+            return 0.0;
+        }
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    private static SimilarityKernel loadSimd() {
+        if (Boolean.getBoolean("embedding.simd.disabled")) {
+            log.info("Vector API disabled by system property, using scalar similarity kernel");
+            return null;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("jdk.incubator.vector module not enabled, using scalar similarity kernel");
+            return null;
+        }
+        try {
+            SimilarityKernel kernel = (SimilarityKernel) Class.forName(SIMD_KERNEL_CLASS)
+                    .getDeclaredConstructor().newInstance();
+            kernel.dot(new float[16], 0, new float[16], 0, 16);
+            log.info("Using Vector API similarity kernel ({} lanes)", kernel.lanes());
+            return kernel;
+        } catch (ClassNotFoundException e) {
+            log.info("Built without the SIMD kernel (-Psimd), using scalar similarity kernel");
+            return null;
+        } catch (Throwable e) {
+            log.warn("Vector API unavailable, using scalar similarity kernel", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.moleep.toeic_master.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedUntilMinimumCallsAreRecorded() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, 60_000, 1);
+        for (int i = 0; i < 3; i++) {
+            fail(breaker);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void opensAtFailureRateThresholdOverSlidingWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, 60_000, 1);
+        // 성공 4번 뒤 실패 1번: 창 [S,S,S,F] = 25%
+        for (int i = 0; i < 4; i++) {
+            succeed(breaker);
+        }
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        // 오래된 성공이 창에서 밀려나 [S,S,F,F] = 50%
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void rejectsCallsWhileOpen() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1, 50, 60_000, 1);
+        long startedBeforeOpen = acquire(breaker);
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.isCallPermitted());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        // 열리기 전에 시작된 호출의 결과는 상태를 바꾸지 않음
+        breaker.onSuccess(startedBeforeOpen);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void halfOpenClosesAfterAllProbesSucceed() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1, 50, 0, 2);
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertTrue(breaker.isCallPermitted());
+
+        long first = acquire(breaker);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        long second = acquire(breaker);
+        // 시험 호출 수를 다 쓰면 결과가 나올 때까지 거절
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertFalse(breaker.isCallPermitted());
+
+        breaker.onSuccess(first);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.onSuccess(second);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void halfOpenReopensOnProbeFailure() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1, 50, 0, 2);
+        fail(breaker);
+        long probe = acquire(breaker);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onFailure(probe);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void callsPermittedBeforeHalfOpenDoNotCountAsProbes() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1, 50, 0, 1);
+        long slowClosedCall = acquire(breaker);
+        fail(breaker);
+        long probe = acquire(breaker);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        // CLOSED 때 시작해 HALF_OPEN 중에 끝난 호출은 성공이든 실패든 시험 호출 결과가 아님
+        breaker.onSuccess(slowClosedCall);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.onFailure(slowClosedCall);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onSuccess(probe);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void closingResetsTheFailureWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, 0, 1);
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        succeed(breaker);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        // 닫힌 뒤에는 이전 실패가 남아 있지 않으므로 minimumCalls를 다시 채워야 열림
+        for (int i = 0; i < 3; i++) {
+            fail(breaker);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private static long acquire(CircuitBreaker breaker) {
+        long permit = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, permit);
+        return permit;
+    }
+
+    private static void succeed(CircuitBreaker breaker) {
+        breaker.onSuccess(acquire(breaker));
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        breaker.onFailure(acquire(breaker));
+    }
+}
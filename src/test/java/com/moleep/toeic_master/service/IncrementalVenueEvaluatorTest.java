@@ -0,0 +1,176 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.entity.VenueEvalChunk;
+import com.moleep.toeic_master.repository.ReviewContentView;
+import com.moleep.toeic_master.repository.VenueEvalChunkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IncrementalVenueEvaluatorTest {
+
+    private static final long SCHOOL_ID = 1L;
+
+    // 저장소는 id -> 청크 맵으로 흉내 냄
+    private final Map<Long, VenueEvalChunk> table = new TreeMap<>();
+    private final List<List<String>> evaluated = new ArrayList<>();
+    private final List<String> combined = new ArrayList<>();
+    private long nextId = 100;
+
+    private IncrementalVenueEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        VenueEvalChunkRepository repository = mock(VenueEvalChunkRepository.class);
+        when(repository.findBySchoolIdOrderByFirstReviewId(SCHOOL_ID)).thenAnswer(invocation -> table.values().stream()
+                .sorted(Comparator.comparing(VenueEvalChunk::getFirstReviewId))
+                .map(IncrementalVenueEvaluatorTest::copy)
+                .toList());
+        when(repository.save(any(VenueEvalChunk.class))).thenAnswer(invocation -> {
+            VenueEvalChunk chunk = invocation.getArgument(0);
+            if (chunk.getId() == null) {
+                chunk.setId(nextId++);
+            }
+            table.put(chunk.getId(), copy(chunk));
+            return chunk;
+        });
+        when(repository.deleteStale(anyLong(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(1);
+            int before = table.size();
+            table.keySet().retainAll(ids);
+            return before - table.size();
+        });
+
+        EmbeddingService embeddingService = mock(EmbeddingService.class);
+        when(embeddingService.getVenueEvaluation(anyList())).thenAnswer(invocation -> {
+            List<String> reviews = invocation.getArgument(0);
+            evaluated.add(List.copyOf(reviews));
+            return new EmbeddingService.VenueEvalResult(String.join(",", reviews), new float[]{1f});
+        });
+        when(embeddingService.combineVenueEvaluations(anyList(), anyList())).thenAnswer(invocation -> {
+            List<String> evaluations = invocation.getArgument(0);
+            combined.clear();
+            combined.addAll(evaluations);
+            return new EmbeddingService.VenueEvalResult(String.join("|", evaluations), new float[]{1f});
+        });
+
+        evaluator = new IncrementalVenueEvaluator(repository, embeddingService);
+        ReflectionTestUtils.setField(evaluator, "chunkSize", 3);
+    }
+
+    @Test
+    void firstRunWithoutStoredChunksEvaluatesEveryChunk() {
+        evaluator.evaluate(SCHOOL_ID, reviews(1, 7));
+
+        assertEquals(List.of(List.of("r1", "r2", "r3"), List.of("r4", "r5", "r6"), List.of("r7")), evaluated);
+        assertEquals(List.of("r1,r2,r3", "r4,r5,r6", "r7"), combined);
+        assertEquals(List.of("1-3", "4-6", "7-7"), ranges());
+    }
+
+    @Test
+    void appendFillsTheLastChunkAndStartsNewOnesWithoutTouchingEarlierChunks() {
+        evaluator.evaluate(SCHOOL_ID, reviews(1, 7));
+        Map<String, Long> idsBefore = idsByRange();
+        evaluated.clear();
+
+        evaluator.evaluate(SCHOOL_ID, reviews(1, 11));
+
+        // 덜 찬 마지막 청크(7)는 8, 9로 채워 다시 평가하고, 남은 10, 11은 새 청크
+        assertEquals(List.of(List.of("r7", "r8", "r9"), List.of("r10", "r11")), evaluated);
+        assertEquals(List.of("r1,r2,r3", "r4,r5,r6", "r7,r8,r9", "r10,r11"), combined);
+        assertEquals(List.of("1-3", "4-6", "7-9", "10-11"), ranges());
+        assertEquals(idsBefore.get("1-3"), idsByRange().get("1-3"));
+        assertEquals(idsBefore.get("4-6"), idsByRange().get("4-6"));
+    }
+
+    @Test
+    void editInsideStoredChunkReevaluatesOnlyThatChunk() {
+        evaluator.evaluate(SCHOOL_ID, reviews(1, 7));
+        Map<String, Long> idsBefore = idsByRange();
+        evaluated.clear();
+
+        List<ReviewContentView> edited = new ArrayList<>(reviews(1, 7));
+        edited.set(4, new Review(5L, "r5 수정"));
+        evaluator.evaluate(SCHOOL_ID, edited);
+
+        assertEquals(List.of(List.of("r4", "r5 수정", "r6")), evaluated);
+        assertEquals(List.of("r1,r2,r3", "r4,r5 수정,r6", "r7"), combined);
+        assertEquals(idsBefore, idsByRange());
+    }
+
+    @Test
+    void deletionInTheMiddleKeepsLaterRangesAndReevaluatesOnlyItsChunk() {
+        evaluator.evaluate(SCHOOL_ID, reviews(1, 7));
+        Map<String, Long> idsBefore = idsByRange();
+        evaluated.clear();
+
+        List<ReviewContentView> remaining = new ArrayList<>(reviews(1, 7));
+        remaining.remove(4);
+        evaluator.evaluate(SCHOOL_ID, remaining);
+
+        // 뒤쪽 리뷰가 앞 청크로 밀려 들어오지 않으므로 7은 그대로 재사용
+        assertEquals(List.of(List.of("r4", "r6")), evaluated);
+        assertEquals(List.of("r1,r2,r3", "r4,r6", "r7"), combined);
+        assertEquals(idsBefore, idsByRange());
+    }
+
+    private List<String> ranges() {
+        return table.values().stream()
+                .sorted(Comparator.comparing(VenueEvalChunk::getFirstReviewId))
+                .map(chunk -> chunk.getFirstReviewId() + "-" + chunk.getLastReviewId())
+                .toList();
+    }
+
+    private Map<String, Long> idsByRange() {
+        Map<String, Long> ids = new TreeMap<>();
+        table.values().forEach(chunk -> ids.put(chunk.getFirstReviewId() + "-" + chunk.getLastReviewId(), chunk.getId()));
+        return ids;
+    }
+
+    private static List<ReviewContentView> reviews(long firstId, long lastId) {
+        return LongStream.rangeClosed(firstId, lastId)
+                .<ReviewContentView>mapToObj(id -> new Review(id, "r" + id))
+                .toList();
+    }
+
+    private static VenueEvalChunk copy(VenueEvalChunk chunk) {
+        return VenueEvalChunk.builder()
+                .id(chunk.getId())
+                .schoolId(chunk.getSchoolId())
+                .firstReviewId(chunk.getFirstReviewId())
+                .lastReviewId(chunk.getLastReviewId())
+                .contentHash(chunk.getContentHash())
+                .reviewCount(chunk.getReviewCount())
+                .evaluation(chunk.getEvaluation())
+                .embedding(chunk.getEmbedding())
+                .build();
+    }
+
+    private record Review(Long id, String content) implements ReviewContentView {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getContent() {
+            return content;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.moleep.toeic_master.service;
+
+import com.moleep.toeic_master.entity.StudyStatus;
+import com.moleep.toeic_master.vector.EmbeddingMatrix;
+import com.moleep.toeic_master.vector.RowBits;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StudyFilterIndexTest {
+
+    private static final String[] EXAM_TYPES = {"TOEIC", "TOEFL", "IELTS", null};
+    private static final String[] REGIONS = {"서울", "부산", "대전", null};
+    private static final Integer[] MIN_SCORES = {null, 0, 500, 730, 990};
+    private static final Integer[] MAX_SCORES = {null, 600, 800, 1000};
+
+    private final Random random = new Random(11);
+    private final EmbeddingMatrix matrix = new EmbeddingMatrix();
+    private final StudyFilterIndex filterIndex = new StudyFilterIndex();
+
+    @Test
+    void bitmapsMatchAttributeFilterAfterPutsUpdatesAndCompaction() {
+        int count = 3_000;
+        for (long id = 0; id < count; id++) {
+            put(id);
+        }
+        assertAllFiltersMatch();
+
+        // 속성만 바뀐 경우(마감, 지역/점수 수정)는 같은 행의 비트를 옮김
+        for (int i = 0; i < 500; i++) {
+            long id = random.nextInt(count);
+            filterIndex.update(id, matrix.rowOf(id), randomAttributes());
+        }
+        assertAllFiltersMatch();
+
+        // 재삽입/삭제가 쌓이면 행렬이 압축되어 generation이 바뀌고 비트셋도 다시 만들어짐
+        long generation = matrix.snapshot().generation();
+        for (int i = 0; i < 4_000; i++) {
+            long id = random.nextInt(count);
+            if (i % 3 == 0) {
+                matrix.remove(id);
+                filterIndex.remove(id);
+            } else {
+                put(id);
+            }
+        }
+        assertNotEquals(generation, matrix.snapshot().generation());
+        assertAllFiltersMatch();
+    }
+
+    @Test
+    void updatePublishesNewBitmapsAndLeavesEarlierOneUntouched() {
+        StudyFilterIndex.Attributes before = new StudyFilterIndex.Attributes("TOEIC", "서울", StudyStatus.RECRUITING, 700);
+        int row = matrix.put(1L, new float[]{1f, 0f});
+        filterIndex.put(1L, row, before, matrix.snapshot());
+        int rows = matrix.snapshot().rows();
+        StudyFilterIndex.Bitmaps earlier = filterIndex.bitmaps();
+        long[] earlierMask = earlier.match("TOEIC", "서울", 650, 750, rows);
+
+        // 검색 도중 속성이 바뀌어도 이미 읽은 Bitmaps는 지우고 다시 켜는 중간 상태를 보지 않음
+        filterIndex.update(1L, row, new StudyFilterIndex.Attributes("TOEFL", "부산", StudyStatus.RECRUITING, 900));
+
+        assertArrayEquals(earlierMask, earlier.match("TOEIC", "서울", 650, 750, rows));
+        assertNotSame(earlier, filterIndex.bitmaps());
+        assertFalse(RowBits.get(filterIndex.bitmaps().match("TOEIC", "서울", 650, 750, rows), row));
+        assertTrue(RowBits.get(filterIndex.bitmaps().match("TOEFL", "부산", 850, 950, rows), row));
+    }
+
+    private void put(long id) {
+        int row = matrix.put(id, new float[]{random.nextFloat() + 0.1f, random.nextFloat()});
+        filterIndex.put(id, row, randomAttributes(), matrix.snapshot());
+    }
+
+    private StudyFilterIndex.Attributes randomAttributes() {
+        Integer score = random.nextInt(5) == 0 ? null : random.nextInt(1_000);
+        StudyStatus status = random.nextInt(4) == 0 ? StudyStatus.CLOSED : StudyStatus.RECRUITING;
+        return new StudyFilterIndex.Attributes(EXAM_TYPES[random.nextInt(EXAM_TYPES.length)],
+                REGIONS[random.nextInt(REGIONS.length)], status, score);
+    }
+
+    private void assertAllFiltersMatch() {
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        StudyFilterIndex.Bitmaps bitmaps = filterIndex.bitmaps();
+        for (String examType : EXAM_TYPES) {
+            for (String region : REGIONS) {
+                for (Integer minScore : MIN_SCORES) {
+                    for (Integer maxScore : MAX_SCORES) {
+                        long[] mask = bitmaps.match(examType, region, minScore, maxScore, snapshot.rows());
+                        RowBits.and(mask, snapshot.liveMask());
+                        assertArrayEquals(expected(snapshot, examType, region, minScore, maxScore), mask,
+                                examType + "/" + region + "/" + minScore + "~" + maxScore);
+                    }
+                }
+            }
+        }
+    }
+
+    private long[] expected(EmbeddingMatrix.Snapshot snapshot, String examType, String region,
+                            Integer minScore, Integer maxScore) {
+        long[] mask = new long[RowBits.words(snapshot.rows())];
+        for (int row = 0; row < snapshot.rows(); row++) {
+            if (snapshot.isLive(row) && filterIndex.matches(snapshot.id(row), examType, region, minScore, maxScore)) {
+                RowBits.set(mask, row);
+            }
+        }
+        return mask;
+    }
+}
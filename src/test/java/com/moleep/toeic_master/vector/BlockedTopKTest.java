@@ -0,0 +1,79 @@
+package com.moleep.toeic_master.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.moleep.toeic_master.vector.TopKSelectorTest.bruteForce;
+import static com.moleep.toeic_master.vector.TopKSelectorTest.randomMatrix;
+import static com.moleep.toeic_master.vector.TopKSelectorTest.randomVector;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BlockedTopKTest {
+
+    @Test
+    void everyQueryMatchesBruteForceAndScan() {
+        Random random = new Random(11);
+        EmbeddingMatrix matrix = randomMatrix(random, 3_000, false);
+        for (long id = 0; id < 3_000; id += 7) {
+            matrix.remove(id);
+        }
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        long[] mask = new long[RowBits.words(snapshot.rows())];
+        for (int row = 0; row < snapshot.rows(); row += 2) {
+            RowBits.set(mask, row);
+        }
+
+        // 질의 블록이 여러 개로 나뉘어 병렬로 처리되도록 QUERY_BLOCK보다 많이
+        int queryCount = BlockedTopK.QUERY_BLOCK * 3 + 5;
+        int dimension = snapshot.dimension();
+        float[] queries = new float[queryCount * dimension];
+        for (int q = 0; q < queryCount; q++) {
+            System.arraycopy(EmbeddingMatrix.normalize(randomVector(random)), 0, queries, q * dimension, dimension);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TopKSelector[] all = BlockedTopK.search(snapshot, queries, queryCount, 20, null, pool);
+            TopKSelector[] masked = BlockedTopK.search(snapshot, queries, queryCount, 20, mask, pool);
+            assertEquals(queryCount, all.length);
+            for (int q = 0; q < queryCount; q++) {
+                float[] query = new float[dimension];
+                System.arraycopy(queries, q * dimension, query, 0, dimension);
+                assertArrayEquals(bruteForce(snapshot, query, 20, null), all[q].sortedIds(), "query " + q);
+                assertArrayEquals(TopKSelector.scan(snapshot, query, 20, null).sortedIds(), all[q].sortedIds());
+                assertArrayEquals(bruteForce(snapshot, query, 20, mask), masked[q].sortedIds(), "masked query " + q);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void kIsClampedToLiveRows() {
+        Random random = new Random(12);
+        EmbeddingMatrix matrix = randomMatrix(random, 10, false);
+        matrix.remove(3L);
+        float[] query = EmbeddingMatrix.normalize(randomVector(random));
+
+        TopKSelector[] results = BlockedTopK.search(matrix.snapshot(), query, 1, Integer.MAX_VALUE, null,
+                ForkJoinPool.commonPool());
+        assertArrayEquals(bruteForce(matrix.snapshot(), query, 10, null), results[0].sortedIds());
+        assertEquals(9, results[0].size());
+    }
+
+    @Test
+    void emptyMatrixAndShortQueries() {
+        float[] query = EmbeddingMatrix.normalize(randomVector(new Random(13)));
+        TopKSelector[] empty = BlockedTopK.search(new EmbeddingMatrix().snapshot(), query, 1, 5, null,
+                ForkJoinPool.commonPool());
+        assertEquals(0, empty[0].size());
+
+        EmbeddingMatrix.Snapshot snapshot = randomMatrix(new Random(14), 10, false).snapshot();
+        assertThrows(IllegalArgumentException.class,
+                () -> BlockedTopK.search(snapshot, query, 2, 5, null, ForkJoinPool.commonPool()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.moleep.toeic_master.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmbeddingCodecTest {
+
+    private static final int DIMENSION = 768;
+
+    @Test
+    void float32RoundTripIsExact() {
+        float[] values = randomUnitVector(new Random(1));
+        byte[] bytes = EmbeddingCodec.encode(values, EmbeddingCodec.Format.FLOAT32);
+        assertEquals(1 + DIMENSION * Float.BYTES, bytes.length);
+        assertArrayEquals(values, EmbeddingCodec.decode(bytes));
+    }
+
+    @Test
+    void float16RoundTripStaysWithinHalfPrecision() {
+        Random random = new Random(2);
+        for (int n = 0; n < 20; n++) {
+            float[] values = randomUnitVector(random);
+            byte[] bytes = EmbeddingCodec.encode(values, EmbeddingCodec.Format.FLOAT16);
+            assertEquals(1 + DIMENSION * Short.BYTES, bytes.length);
+            float[] decoded = EmbeddingCodec.decode(bytes);
+            assertEquals(DIMENSION, decoded.length);
+            for (int i = 0; i < DIMENSION; i++) {
+                // 정규화된 768차원 원소는 |x| < 1이므로 반올림 오차는 2^-12 이하
+                assertEquals(values[i], decoded[i], 5e-4f);
+            }
+        }
+
+        float[] exact = {0f, 1f, -2f, 0.5f, -0.125f, 65504f};
+        assertArrayEquals(exact, EmbeddingCodec.decode(EmbeddingCodec.encode(exact, EmbeddingCodec.Format.FLOAT16)));
+    }
+
+    @Test
+    void taggedLengthIsNeverMultipleOfFour() {
+        for (int dimension = 0; dimension <= 9; dimension++) {
+            for (EmbeddingCodec.Format format : EmbeddingCodec.Format.values()) {
+                int length = EmbeddingCodec.encode(new float[dimension], format).length;
+                assertEquals(1, length % 2, format + " x " + dimension);
+            }
+        }
+    }
+
+    @Test
+    void decodesLegacyHeaderlessFloat32() {
+        float[] values = randomUnitVector(new Random(3));
+        ByteBuffer legacy = ByteBuffer.allocate(values.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        legacy.asFloatBuffer().put(values);
+        assertArrayEquals(values, EmbeddingCodec.decode(legacy.array()));
+
+        // 첫 바이트가 태그 값과 같아도 길이가 4의 배수면 이전 형식
+        float[] tagLike = {Float.intBitsToFloat(0x3F800002), 0.25f};
+        ByteBuffer tagged = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        tagged.asFloatBuffer().put(tagLike);
+        assertEquals(0x02, tagged.array()[0]);
+        assertArrayEquals(tagLike, EmbeddingCodec.decode(tagged.array()));
+    }
+
+    @Test
+    void rejectsUnknownOrCorruptedValues() {
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.decode(new byte[]{0x7F, 0, 0, 0, 0}));
+        // FLOAT16 태그 뒤 원소 크기의 배수가 아닌 길이
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.decode(new byte[]{0x02, 0, 0, 0, 0, 0}));
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return EmbeddingMatrix.normalize(vector);
+    }
+}
@@ -0,0 +1,59 @@
+package com.moleep.toeic_master.vector;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddingMatrixTest {
+
+    @Test
+    void snapshotIsNotChangedByLaterPutAndRemove() {
+        EmbeddingMatrix matrix = new EmbeddingMatrix();
+        matrix.put(1L, new float[]{1f, 0f});
+        matrix.put(2L, new float[]{0f, 1f});
+        EmbeddingMatrix.Snapshot before = matrix.snapshot();
+
+        matrix.put(3L, new float[]{1f, 1f});
+        matrix.remove(1L);
+        matrix.put(2L, new float[]{1f, -1f});
+
+        assertEquals(2, before.rows());
+        assertEquals(2, RowBits.cardinality(before.liveMask()));
+        assertTrue(before.isLive(0));
+        assertTrue(before.isLive(1));
+        // 같은 워드에 나중에 추가된 행이 이전 스냅샷에 보이면 안 됨
+        assertFalse(before.isLive(2));
+        assertFalse(before.isLive(3));
+    }
+
+    @Test
+    void updatedIdIsLiveInExactlyOneRow() {
+        EmbeddingMatrix matrix = new EmbeddingMatrix();
+        matrix.put(7L, new float[]{1f, 0f});
+        matrix.put(7L, new float[]{0f, 1f});
+
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        long[] live = snapshot.liveMask();
+        assertEquals(1, RowBits.cardinality(live));
+        assertEquals(1, snapshot.liveCount());
+        assertFalse(snapshot.isLive(0));
+        assertTrue(snapshot.isLive(1));
+        assertEquals(7L, snapshot.id(1));
+    }
+
+    @Test
+    void liveMaskHasNoBitsPastRows() {
+        EmbeddingMatrix matrix = new EmbeddingMatrix();
+        for (long id = 0; id < 70; id++) {
+            matrix.put(id, new float[]{1f, id});
+        }
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        matrix.put(100L, new float[]{0f, 1f});
+
+        long[] mask = snapshot.liveMask();
+        assertEquals(RowBits.words(70), mask.length);
+        assertEquals(70, RowBits.cardinality(mask));
+    }
+}
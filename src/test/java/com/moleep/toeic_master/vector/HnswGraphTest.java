@@ -0,0 +1,121 @@
+package com.moleep.toeic_master.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswGraphTest {
+
+    private static final int DIMENSION = 64;
+    private static final int CLUSTERS = 50;
+
+    @Test
+    void recallAgainstExactScanOnClusteredData() {
+        Random random = new Random(42);
+        float[][] centroids = new float[CLUSTERS][];
+        for (int c = 0; c < CLUSTERS; c++) {
+            centroids[c] = gaussian(random, 1.0);
+        }
+
+        // 삽입 사이사이 삭제/재삽입을 섞어 삭제 표시된 노드가 경로로만 남는 상황을 포함
+        EmbeddingMatrix matrix = new EmbeddingMatrix();
+        HnswGraph graph = null;
+        int count = 10_000;
+        for (int id = 0; id < count; id++) {
+            matrix.put(id, clustered(random, centroids));
+            if (id % 10 == 9) {
+                matrix.remove(random.nextInt(id));
+            }
+            if (id % 25 == 24) {
+                matrix.put(random.nextInt(id), clustered(random, centroids));
+            }
+            graph = sync(graph, matrix.snapshot());
+        }
+
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        double found = 0;
+        int queries = 200;
+        for (int q = 0; q < queries; q++) {
+            float[] query = EmbeddingMatrix.normalize(clustered(random, centroids));
+            long[] exact = TopKSelector.scan(snapshot, query, 10, null).sortedIds();
+            TopKSelector approximate = graph.search(snapshot, query, 10, 64, null);
+            assertNotNull(approximate);
+            found += recall(exact, approximate.sortedIds());
+        }
+        double recall = found / queries;
+        assertTrue(recall >= 0.95, "recall@10 = " + recall);
+    }
+
+    @Test
+    void searchSkipsDeletedAndFilteredRows() {
+        Random random = new Random(7);
+        EmbeddingMatrix matrix = new EmbeddingMatrix();
+        HnswGraph graph = null;
+        for (int id = 0; id < 2_000; id++) {
+            matrix.put(id, gaussian(random, 1.0));
+            graph = sync(graph, matrix.snapshot());
+        }
+        for (int id = 0; id < 2_000; id += 4) {
+            matrix.remove(id);
+        }
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+
+        for (int q = 0; q < 50; q++) {
+            float[] query = EmbeddingMatrix.normalize(gaussian(random, 1.0));
+            long[] ids = graph.search(snapshot, query, 20, 64, row -> snapshot.id(row) % 2 == 1).sortedIds();
+            assertTrue(ids.length > 0);
+            for (long id : ids) {
+                assertFalse(id % 4 == 0, "deleted id " + id);
+                assertTrue(id % 2 == 1, "filtered id " + id);
+            }
+        }
+    }
+
+    /**
+     * 새로 추가된 행을 그래프에 넣고, 압축으로 행 번호가 바뀌었으면 다시 만든다 (EmbeddingIndex와 같은 규칙)
+     */
+    private static HnswGraph sync(HnswGraph graph, EmbeddingMatrix.Snapshot snapshot) {
+        int from;
+        if (graph == null || graph.generation() != snapshot.generation()) {
+            graph = new HnswGraph(16, 100, snapshot.generation());
+            from = 0;
+        } else {
+            from = snapshot.rows() - 1;
+        }
+        for (int row = from; row < snapshot.rows(); row++) {
+            if (snapshot.isLive(row)) {
+                graph.insert(row, snapshot);
+            }
+        }
+        return graph;
+    }
+
+    private static float[] clustered(Random random, float[][] centroids) {
+        float[] centroid = centroids[random.nextInt(centroids.length)];
+        float[] noise = gaussian(random, 0.3);
+        for (int i = 0; i < DIMENSION; i++) {
+            noise[i] += centroid[i];
+        }
+        return noise;
+    }
+
+    private static float[] gaussian(Random random, double sigma) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) (random.nextGaussian() * sigma);
+        }
+        return vector;
+    }
+
+    private static double recall(long[] expected, long[] actual) {
+        long[] sorted = actual.clone();
+        Arrays.sort(sorted);
+        long found = Arrays.stream(expected).filter(id -> Arrays.binarySearch(sorted, id) >= 0).count();
+        return expected.length == 0 ? 1.0 : (double) found / expected.length;
+    }
+}
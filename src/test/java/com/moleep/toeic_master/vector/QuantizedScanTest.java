@@ -0,0 +1,98 @@
+package com.moleep.toeic_master.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantizedScanTest {
+
+    private static final int DIMENSION = 128;
+
+    @Test
+    void approximateDotStaysWithinQuantizationError() {
+        Random random = new Random(5);
+        EmbeddingMatrix matrix = new EmbeddingMatrix(true);
+        for (int id = 0; id < 500; id++) {
+            matrix.put(id, gaussian(random));
+        }
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        assertTrue(snapshot.isQuantized());
+
+        float[] query = EmbeddingMatrix.normalize(gaussian(random));
+        float querySum = 0f;
+        float queryAbsSum = 0f;
+        for (float v : query) {
+            querySum += v;
+            queryAbsSum += Math.abs(v);
+        }
+        for (int row = 0; row < snapshot.rows(); row++) {
+            // 원소별 반올림 오차는 scale/2 이하이므로 내적 오차는 scale/2 * Σ|q| 이하
+            float[] vector = Arrays.copyOfRange(snapshot.data(), row * DIMENSION, (row + 1) * DIMENSION);
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (float v : vector) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            float bound = (max - min) / 255f / 2f * queryAbsSum + 1e-4f;
+            assertEquals(snapshot.dot(row, query), snapshot.approximateDot(row, query, querySum), bound, "row " + row);
+        }
+    }
+
+    @Test
+    void rerankedScanMatchesExactScan() {
+        Random random = new Random(9);
+        float[][] centroids = new float[40][];
+        for (int c = 0; c < centroids.length; c++) {
+            centroids[c] = gaussian(random);
+        }
+        EmbeddingMatrix quantized = new EmbeddingMatrix(true);
+        for (int id = 0; id < 5_000; id++) {
+            float[] vector = gaussian(random);
+            float[] centroid = centroids[random.nextInt(centroids.length)];
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = centroid[i] + 0.3f * vector[i];
+            }
+            quantized.put(id, vector);
+        }
+        EmbeddingMatrix.Snapshot snapshot = quantized.snapshot();
+
+        int exactMatches = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = EmbeddingMatrix.normalize(gaussian(random));
+            long[] exact = TopKSelector.scan(snapshot, query, 10, null, 0).sortedIds();
+            long[] reranked = TopKSelector.scan(snapshot, query, 10, null, 200).sortedIds();
+            // 재정렬은 float 원본으로 하므로 후보에 들기만 하면 순서까지 같음
+            if (Arrays.equals(exact, reranked)) {
+                exactMatches++;
+            }
+        }
+        assertEquals(queries, exactMatches);
+    }
+
+    @Test
+    void rerankIsSkippedWhenItWouldNotPrune() {
+        Random random = new Random(3);
+        EmbeddingMatrix matrix = new EmbeddingMatrix(true);
+        for (int id = 0; id < 50; id++) {
+            matrix.put(id, gaussian(random));
+        }
+        float[] query = EmbeddingMatrix.normalize(gaussian(random));
+        assertArrayEquals(TopKSelector.scan(matrix.snapshot(), query, 5, null, 0).sortedIds(),
+                TopKSelector.scan(matrix.snapshot(), query, 5, null, 200).sortedIds());
+    }
+
+    private static float[] gaussian(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,130 @@
+package com.moleep.toeic_master.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKSelectorTest {
+
+    private static final int DIMENSION = 8;
+
+    @Test
+    void offerKeepsExactTopKInDescendingOrder() {
+        Random random = new Random(1);
+        float[] scores = new float[1_000];
+        TopKSelector selector = new TopKSelector(10);
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextFloat();
+            selector.offer(i, scores[i]);
+        }
+
+        long[] expected = IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+                .limit(10)
+                .mapToLong(Integer::longValue)
+                .toArray();
+        assertArrayEquals(expected, selector.sortedIds());
+    }
+
+    @Test
+    void hugeKDoesNotPreallocate() {
+        TopKSelector selector = new TopKSelector(Integer.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            selector.offer(i, i);
+        }
+        assertEquals(100, selector.size());
+        assertEquals(99L, selector.sortedIds()[0]);
+    }
+
+    @Test
+    void scanMatchesBruteForceWithMask() {
+        Random random = new Random(2);
+        EmbeddingMatrix matrix = randomMatrix(random, 5_000, false);
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        long[] mask = new long[RowBits.words(snapshot.rows())];
+        for (int row = 0; row < snapshot.rows(); row += 3) {
+            RowBits.set(mask, row);
+        }
+
+        for (int q = 0; q < 20; q++) {
+            float[] query = EmbeddingMatrix.normalize(randomVector(random));
+            assertArrayEquals(bruteForce(snapshot, query, 25, mask),
+                    TopKSelector.scan(snapshot, query, 25, mask).sortedIds());
+        }
+    }
+
+    @Test
+    void forkJoinScanMergesToSameResult() {
+        Random random = new Random(3);
+        EmbeddingMatrix matrix = randomMatrix(random, TopKSelector.PARALLEL_THRESHOLD + 1_000, false);
+        EmbeddingMatrix.Snapshot snapshot = matrix.snapshot();
+        long[] rows = snapshot.liveMask();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int q = 0; q < 5; q++) {
+                float[] query = EmbeddingMatrix.normalize(randomVector(random));
+                long[] expected = bruteForce(snapshot, query, 50, null);
+
+                TopKSelector merged = pool.invoke(
+                        new TopKSelector.ScanTask(snapshot, query, 50, rows, 0, rows.length, false));
+                assertArrayEquals(expected, merged.sortedIds());
+                assertArrayEquals(expected, TopKSelector.scan(snapshot, query, 50, null).sortedIds());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void kIsClampedToLiveRows() {
+        EmbeddingMatrix matrix = randomMatrix(new Random(4), 30, false);
+        matrix.remove(0L);
+        TopKSelector selector = TopKSelector.scan(matrix.snapshot(), EmbeddingMatrix.normalize(randomVector(new Random(5))),
+                Integer.MAX_VALUE, null);
+        assertEquals(29, selector.size());
+    }
+
+    static EmbeddingMatrix randomMatrix(Random random, int rows, boolean quantized) {
+        EmbeddingMatrix matrix = new EmbeddingMatrix(quantized);
+        for (int i = 0; i < rows; i++) {
+            matrix.put(i, randomVector(random));
+        }
+        return matrix;
+    }
+
+    static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    /**
+     * 살아 있는(그리고 mask에 켜진) 행을 모두 double로 계산해 정렬한 상위 k개 id
+     */
+    static long[] bruteForce(EmbeddingMatrix.Snapshot snapshot, float[] query, int k, long[] mask) {
+        int dimension = snapshot.dimension();
+        float[] data = snapshot.data();
+        return IntStream.range(0, snapshot.rows())
+                .filter(snapshot::isLive)
+                .filter(row -> mask == null || RowBits.get(mask, row))
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer row) -> {
+                    double dot = 0.0;
+                    for (int i = 0; i < dimension; i++) {
+                        dot += (double) data[row * dimension + i] * query[i];
+                    }
+                    return dot;
+                }).reversed())
+                .limit(k)
+                .mapToLong(snapshot::id)
+                .toArray();
+    }
+}
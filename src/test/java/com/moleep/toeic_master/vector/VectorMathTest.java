@@ -0,0 +1,57 @@
+package com.moleep.toeic_master.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 사용 중인 커널(-Psimd 빌드면 SIMD, 아니면 스칼라)이 double 누산 기준값과 일치하는지 확인
+ */
+class VectorMathTest {
+
+    private static final float TOLERANCE = 1e-4f;
+
+    @Test
+    void dotMatchesReferenceForOddLengthsAndOffsets() {
+        Random random = new Random(42);
+        for (int length : new int[]{1, 3, 7, 16, 31, 768}) {
+            float[] a = randomVector(random, length + 5);
+            float[] b = randomVector(random, length + 3);
+            double expected = 0.0;
+            for (int i = 0; i < length; i++) {
+                expected += (double) a[5 + i] * b[3 + i];
+            }
+            assertEquals(expected, VectorMath.dot(a, 5, b, 3, length), TOLERANCE, "length " + length);
+        }
+    }
+
+    @Test
+    void dotInt8MatchesReference() {
+        Random random = new Random(7);
+        int length = 768;
+        float[] query = randomVector(random, length);
+        byte[] codes = new byte[length * 2];
+        random.nextBytes(codes);
+        double expected = 0.0;
+        for (int i = 0; i < length; i++) {
+            expected += (double) query[i] * codes[length + i];
+        }
+        assertEquals(expected, VectorMath.dotInt8(query, codes, length, length), 1e-2);
+    }
+
+    @Test
+    void cosineOfZeroVectorIsZero() {
+        assertEquals(0.0, VectorMath.cosine(new float[4], new float[]{1f, 2f, 3f, 4f}), 0.0);
+        assertEquals(1.0, VectorMath.cosine(new float[]{1f, 2f}, new float[]{2f, 4f}), 1e-6);
+    }
+
+    private static float[] randomVector(Random random, int length) {
+        float[] vector = new float[length];
+        for (int i = 0; i < length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}